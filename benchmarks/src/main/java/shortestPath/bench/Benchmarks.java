@@ -0,0 +1,44 @@
+package shortestPath.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar.  Takes the usual JMH command line options,
+// with these defaults when they are not given:
+//    - every benchmark in this package is run
+//    - the allocation profiler is on ("-prof gc"), so each result also
+//      shows the bytes allocated per operation
+//    - results are written as JSON to jmh-result.json ("-rf json
+//      -rff jmh-result.json"), to compare runs and spot regressions
+// For example, to time only Dijkstra's search on large networks:
+//    java -jar benchmarks.jar SearchBenchmark -p algorithm=DIJKSTRA -p nodes=20000
+public class Benchmarks {
+
+	private Benchmarks() {}
+
+	public static void main(String args[]) throws Exception {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp()) {
+			commandLine.showHelp();
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+		if (commandLine.getIncludes().isEmpty())
+			options.include(Benchmarks.class.getPackage().getName() + "\\.");
+		if (commandLine.getProfilers().isEmpty())
+			options.addProfiler(GCProfiler.class);
+		if (!commandLine.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!commandLine.getResult().hasValue())
+			options.result("jmh-result.json");
+		Runner runner = new Runner(options.build());
+		if (commandLine.shouldList())
+			runner.list();
+		else
+			runner.run();
+	}
+}
@@ -0,0 +1,135 @@
+package shortestPath.bench;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shortestPath.Graph;
+import shortestPath.Link;
+import shortestPath.Network;
+import shortestPath.Node;
+
+// Time of editing a network: adding a node, removing a node with its
+// links, and listing the active links.  Sparse networks (only active
+// links stored) are measured up to large sizes; dense networks (a link
+// object for every pair of nodes, as the window makes by hand) only up to
+// sizes where V(V-1)/2 links still fit in memory.
+//
+// Each edit is undone in the same call (a node added is removed again, a
+// node removed is put back with its links), so the network stays the same
+// size however many times the benchmark runs.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MutationBenchmark {
+
+	// Network with only its active links stored
+	@State(Scope.Thread)
+	public static class Sparse extends Edits {
+
+		@Param({"1000", "10000", "100000"})
+		public int nodes;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			network = new Network(Workloads.graph("random", nodes, 4));
+		}
+	}
+
+	// Network with a link object for every pair of nodes
+	@State(Scope.Thread)
+	public static class Dense extends Edits {
+
+		@Param({"100", "1000"})
+		public int nodes;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			Network sparse = new Network(Workloads.graph("random", nodes, 4));
+			network = new Network(false);
+			for (Node node : sparse.getNodes())
+				network.addNode(node.getX(), node.getY());
+			for (Link link : sparse.getLinks())
+				network.connect(network.getNodes().get(link.getBegin().getIndex()),
+						network.getNodes().get(link.getEnd().getIndex()));
+		}
+	}
+
+	// The edits measured, on either kind of network
+	public abstract static class Edits {
+
+		protected Network network;
+		private final Random rand = new Random(Workloads.SEED);
+
+		// Add a node linked to a random node, then remove it again
+		Node addAndRemoveNode() {
+			Node neighbour = randomNode();
+			Node node = network.addNode(neighbour.getX() + 3, neighbour.getY() + 3);
+			network.connect(node, neighbour);
+			network.removeNode(node);
+			return node;
+		}
+
+		// Remove a random node with its links, then put an equal node back
+		Node removeAndRestoreNode() {
+			Node node = randomNode();
+			ArrayList<Node> neighbours = new ArrayList<Node>();
+			for (Link link : node.getActiveLinks())
+				neighbours.add(link.getOther(node));
+			network.removeNode(node);
+			Node restored = network.addNode(node.getX(), node.getY());
+			for (Node neighbour : neighbours)
+				network.connect(restored, neighbour);
+			return restored;
+		}
+
+		private Node randomNode() {
+			return network.getNodes().get(rand.nextInt(network.getNumNodes()));
+		}
+	}
+
+	@Benchmark
+	public Node addAndRemoveNodeSparse(Sparse state) {
+		return state.addAndRemoveNode();
+	}
+
+	@Benchmark
+	public Node addAndRemoveNodeDense(Dense state) {
+		return state.addAndRemoveNode();
+	}
+
+	@Benchmark
+	public Node removeAndRestoreNodeSparse(Sparse state) {
+		return state.removeAndRestoreNode();
+	}
+
+	@Benchmark
+	public Node removeAndRestoreNodeDense(Dense state) {
+		return state.removeAndRestoreNode();
+	}
+
+	@Benchmark
+	public ArrayList<Link> getActiveLinksSparse(Sparse state) {
+		return state.network.getActiveLinks();
+	}
+
+	@Benchmark
+	public ArrayList<Link> getActiveLinksDense(Dense state) {
+		return state.network.getActiveLinks();
+	}
+}
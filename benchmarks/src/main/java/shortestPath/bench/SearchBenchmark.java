@@ -0,0 +1,100 @@
+package shortestPath.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import shortestPath.Algorithm;
+import shortestPath.Graph;
+import shortestPath.Link;
+import shortestPath.Network;
+import shortestPath.Node;
+import shortestPath.PathSearch;
+
+// Time of one shortest path query, for each kind of search, on seeded
+// networks of different kinds, sizes and densities, between nodes a given
+// number of links apart.  "graphSearch" times the search alone on a Graph;
+// "networkShortestPath" times Network.shortestPath, which also turns the
+// result into a list of links, as the window does.
+//
+// Preprocessing (landmark tables, contraction hierarchies) is done in
+// setup and not timed.  The exhaustive search takes time exponential in
+// the network's size, so it is left out unless asked for, for example
+// with "-p algorithm=EXHAUSTIVE -p nodes=30".
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"random", "nearest", "grid"})
+	public String kind;
+
+	@Param({"1000", "20000"})
+	public int nodes;
+
+	@Param({"4"})
+	public int linksPerNode;
+
+	@Param({"8", "64"})
+	public int hops;
+
+	@Param({"DIJKSTRA", "ASTAR", "LANDMARKS", "BIDIRECTIONAL", "CONTRACTION"})
+	public Algorithm algorithm;
+
+	private PathSearch search;
+	private Network network;
+	private int[] sources;
+	private int[] targets;
+	private Node[] startNodes;
+	private Node[] finishNodes;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Graph graph = Workloads.graph(kind, nodes, linksPerNode);
+		int[][] queries = Workloads.queries(graph, hops);
+		sources = queries[0];
+		targets = queries[1];
+		search = algorithm.newSearch(graph);
+
+		// The same network and queries as nodes of a Network; the first
+		// query builds whatever the search needs ahead of time
+		network = new Network(graph);
+		startNodes = new Node[sources.length];
+		finishNodes = new Node[targets.length];
+		for (int q=0; q<sources.length; q++) {
+			startNodes[q] = network.getNodes().get(sources[q]);
+			finishNodes[q] = network.getNodes().get(targets[q]);
+		}
+		network.shortestPath(startNodes[0], finishNodes[0], algorithm);
+	}
+
+	@Benchmark
+	public double graphSearch() {
+		int q = next;
+		next = (q + 1) % sources.length;
+		return search.search(sources[q], targets[q]);
+	}
+
+	@Benchmark
+	public ArrayList<Link> networkShortestPath() {
+		int q = next;
+		next = (q + 1) % startNodes.length;
+		return network.shortestPath(startNodes[q], finishNodes[q], algorithm);
+	}
+}
@@ -0,0 +1,101 @@
+package shortestPath.bench;
+
+import java.util.Random;
+
+import shortestPath.Dijkstra;
+import shortestPath.Graph;
+import shortestPath.NetworkGenerator;
+import shortestPath.ShortestPathTree;
+
+// Seeded networks and queries for the benchmarks, so every run measures
+// exactly the same work (see NetworkGenerator.java for the kinds of
+// network).
+final class Workloads {
+
+	// Seed used for every network and query list
+	static final long SEED = 20240611L;
+
+	// Number of queries each benchmark cycles through
+	static final int NUM_QUERIES = 64;
+
+	private Workloads() {}
+
+	// Build a network of a given kind ("random", "nearest" or "grid") with
+	// about "nodes" nodes and "linksPerNode" links per node
+	static Graph graph(String kind, int nodes, int linksPerNode) {
+		Random rand = new Random(SEED);
+		switch (kind) {
+		case "random":
+			return NetworkGenerator.randomGraph(nodes, linksPerNode, rand);
+		case "nearest":
+			// Each node picks k neighbours and is picked by about as many
+			return NetworkGenerator.nearestGraph(nodes, Math.max(1, linksPerNode/2 + 1), rand);
+		case "grid":
+			// A full grid has 4 links per node
+			int side = (int) Math.ceil(Math.sqrt(nodes));
+			return NetworkGenerator.gridGraph(side, side, Math.min(1.0, linksPerNode/4.0), rand);
+		default:
+			throw new IllegalArgumentException("Unknown kind of network: " + kind);
+		}
+	}
+
+	// Pick query pairs whose shortest path has about "hops" links (or as
+	// many as the network allows, if its paths are all shorter).  Returns
+	// {sources, targets}.
+	static int[][] queries(Graph graph, int hops) {
+		Random rand = new Random(SEED);
+		Dijkstra dijkstra = new Dijkstra(graph);
+		int n = graph.getNumNodes();
+		int[] sources = new int[NUM_QUERIES];
+		int[] targets = new int[NUM_QUERIES];
+		int[] hopCount = new int[n];
+		for (int q=0; q<NUM_QUERIES; q++) {
+			int source = rand.nextInt(n);
+			ShortestPathTree tree = dijkstra.searchAll(source);
+			countHops(tree, hopCount);
+
+			// Closest hop count to the one asked for, ties broken at random
+			int best = source;
+			int bestGap = Integer.MAX_VALUE;
+			int ties = 0;
+			for (int v=0; v<n; v++) {
+				if (hopCount[v] < 0)
+					continue;
+				int gap = Math.abs(hopCount[v] - hops);
+				if (gap < bestGap) {
+					best = v;
+					bestGap = gap;
+					ties = 1;
+				}
+				else if (gap == bestGap && rand.nextInt(++ties) == 0)
+					best = v;
+			}
+			sources[q] = source;
+			targets[q] = best;
+		}
+		return new int[][] {sources, targets};
+	}
+
+	// Number of links on the tree path to each node (-1 if not reached)
+	private static void countHops(ShortestPathTree tree, int[] hopCount) {
+		int[] parents = tree.getParents();
+		int n = parents.length;
+		for (int v=0; v<n; v++)
+			hopCount[v] = (v == tree.getSource()) ? 0 : (tree.isReached(v) ? -2 : -1);
+
+		// Walk up from each node to one whose count is known, then fill in
+		// the counts on the way back down (with an explicit stack)
+		int[] stack = new int[n];
+		for (int v=0; v<n; v++) {
+			int size = 0;
+			int node = v;
+			while (hopCount[node] == -2) {
+				stack[size++] = node;
+				node = parents[node];
+			}
+			int count = hopCount[node];
+			while (size > 0)
+				hopCount[stack[--size]] = ++count;
+		}
+	}
+}
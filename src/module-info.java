@@ -2,4 +2,6 @@ module shortestPath {
 	exports shortestPath;
 
 	requires transitive java.desktop;
+	requires java.management;
+	requires jdk.management;
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// A* shortest path search over a Graph.  This works like Dijkstra's search
+// (see Dijkstra.java), except that nodes are taken off the heap in order of
+// (distance from source) + (straight-line distance to target).  A link is
+// never shorter than the straight line between its ends, so the straight
+// line distance never overestimates what is left to travel, and the first
+// time the target comes off the heap its distance is the shortest one.
+// Nodes that point away from the target stay on the heap and are never
+// expanded, so far fewer nodes are looked at than with plain Dijkstra.
+//
+// If some links weigh less than their straight-line length (see
+// Link.getWeight), the straight line is no longer a safe estimate and is
+// not used.  Landmark tables (see Landmarks.java) give a safe estimate for
+// any weights; when both are available, the larger estimate is used.
+public class AStar implements PathSearch {
+
+	private final Graph graph;
+
+	// Estimates of the distance left to the target
+	private final boolean geometric;	// use straight-line distances?
+	private final Landmarks landmarks;	// landmark tables (null if none)
+
+	// Working arrays (indexed by node number), reused between searches
+	private final double[] distance;	// best known distance from source
+	private final int[] previousSlot;	// graph slot of the link used to get there
+	private final int[] reached;		// search number that last reached the node
+	private final int[] settled;		// search number that last settled the node
+	private final IndexedHeap heap;
+
+	// Number of the current search (see Dijkstra.java)
+	private int searchNumber = 0;
+
+	// Last search performed
+	private int lastSource = -1;
+	private int lastTarget = -1;
+
+	// Number of nodes taken off the heap by the last search
+	private int nodesExpanded = 0;
+
+	// Number of links looked at from those nodes
+	private long edgesRelaxed = 0;
+
+	// Limits on the searches (null if none), and whether the last search
+	// ran out of them before reaching the target
+	private SearchBudget budget = null;
+	private boolean stopped = false;
+
+	// Search object is tied to one graph
+	public AStar(Graph g) {
+		this(g, null);
+	}
+
+	// Search guided by landmark tables (built for the same graph) as well
+	public AStar(Graph g, Landmarks l) {
+		if (l != null && l.getGraph() != g)
+			throw new IllegalArgumentException("Landmark tables were built for a different graph");
+		graph = g;
+		geometric = g.geometric;
+		landmarks = l;
+		int n = g.numNodes;
+		distance = new double[n];
+		previousSlot = new int[n];
+		reached = new int[n];
+		settled = new int[n];
+		heap = new IndexedHeap(n);
+	}
+
+	// Provide the graph being searched
+	@Override
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Find the shortest distance from node "source" to node "target" (both
+	// are node numbers in the graph).  Returns infinity if there is no path.
+	@Override
+	public double search(int source, int target) {
+		newSearch(source, target);
+		int stamp = searchNumber;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		double[] weights = graph.weights;
+		int targetX = graph.xs[target];
+		int targetY = graph.ys[target];
+
+		// Landmarks can tell straight away that there is no path
+		double sourceEstimate = estimate(source, target, targetX, targetY);
+		if (sourceEstimate == Double.POSITIVE_INFINITY)
+			return Double.POSITIVE_INFINITY;
+		reached[source] = stamp;
+		distance[source] = 0;
+		heap.push(source, sourceEstimate);
+		while (!heap.isEmpty()) {
+			int current = heap.poll();
+			settled[current] = stamp;
+			nodesExpanded++;
+			if (current == target)
+				break;
+			if (budget != null && budget.isSpent(nodesExpanded)) {
+				stopped = true;
+				break;
+			}
+			edgesRelaxed += offsets[current+1] - offsets[current];
+			double base = distance[current];
+			for (int slot = offsets[current]; slot < offsets[current+1]; slot++) {
+				int next = targets[slot];
+				if (settled[next] == stamp)
+					continue;
+				double newDistance = base + weights[slot];
+				if ((reached[next] != stamp) || (newDistance < distance[next])) {
+					reached[next] = stamp;
+					distance[next] = newDistance;
+					previousSlot[next] = slot;
+					heap.push(next, newDistance + estimate(next, target, targetX, targetY));
+				}
+			}
+		}
+		heap.clear();
+		return getDistance(target);
+	}
+
+	// Number of nodes expanded by the last search
+	@Override
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Number of links looked at by the last search
+	@Override
+	public long getEdgesRelaxed() {
+		return edgesRelaxed;
+	}
+
+	// Number of heap pushes, key decreases and polls in the last search
+	@Override
+	public long getHeapOperations() {
+		return heap.getOperations();
+	}
+
+	// Largest number of nodes waiting on the heap during the last search
+	@Override
+	public int getPeakFrontier() {
+		return heap.getPeakSize();
+	}
+
+	// Limit the searches that follow to a budget (null for no limit)
+	@Override
+	public void setBudget(SearchBudget b) {
+		budget = b;
+	}
+
+	// Did the last search stop early?  (See PathSearch.java)
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	// Distance to a node found by the last search (infinity if not reached)
+	public double getDistance(int node) {
+		if (reached[node] != searchNumber)
+			return Double.POSITIVE_INFINITY;
+		return distance[node];
+	}
+
+	// Links of the path found by the last search, from source to target,
+	// or null if there is no path.  (The target is settled unless the
+	// search was stopped early, in which case this is the best path found
+	// by then.)
+	@Override
+	public ArrayList<Link> getPath() {
+		if ((lastTarget < 0) || (reached[lastTarget] != searchNumber))
+			return null;
+		return graph.toLinks(previousSlot, lastSource, lastTarget);
+	}
+
+	// Lower bound on the distance left from a node to the target
+	private double estimate(int node, int target, int targetX, int targetY) {
+		double h = 0;
+		if (geometric) {
+			double dx = graph.xs[node] - targetX;
+			double dy = graph.ys[node] - targetY;
+			h = Math.sqrt(dx*dx + dy*dy);
+		}
+		if (landmarks != null)
+			h = Math.max(h, landmarks.lowerBound(node, target));
+		return h;
+	}
+
+	// Start a new search (see Dijkstra.java)
+	private void newSearch(int source, int target) {
+		searchNumber++;
+		if (searchNumber == Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			Arrays.fill(settled, 0);
+			searchNumber = 1;
+		}
+		lastSource = source;
+		lastTarget = target;
+		nodesExpanded = 0;
+		edgesRelaxed = 0;
+		heap.resetCounters();
+		stopped = false;
+		if (budget != null)
+			budget.start();
+	}
+}
@@ -0,0 +1,44 @@
+package shortestPath;
+
+// Constants for the different shortest path searches that can be
+// picked in the window (the label is what the user sees)
+public enum Algorithm {
+	DIJKSTRA("Dijkstra"),
+	ASTAR("A*"),
+	LANDMARKS("A* with landmarks"),
+	BIDIRECTIONAL("Bidirectional Dijkstra"),
+	CONTRACTION("Contraction hierarchy"),
+	EXHAUSTIVE("Exhaustive");
+	
+	private final String label;
+	
+	Algorithm(String label) {
+		this.label = label;
+	}
+	
+	// Make a search object of this kind for a graph.  For landmarks or a
+	// contraction hierarchy this builds the tables or the hierarchy first,
+	// which takes a while; to search from several threads, build them once
+	// and share them instead (see QueryEngine.java).
+	public PathSearch newSearch(Graph graph) {
+		switch (this) {
+		case DIJKSTRA:
+			return new Dijkstra(graph);
+		case ASTAR:
+			return new AStar(graph);
+		case LANDMARKS:
+			return new AStar(graph, new Landmarks(graph, Landmarks.DEFAULT_COUNT));
+		case BIDIRECTIONAL:
+			return new BidirectionalDijkstra(graph);
+		case CONTRACTION:
+			return new ContractionHierarchy(graph).newSearch();
+		default:
+			return new ExhaustiveSearch(graph);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return label;
+	}
+}
@@ -0,0 +1,134 @@
+package shortestPath;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Command line entry point for answering many shortest path queries
+// without the window (see QueryEngine.java).  A random network is built
+// from the arguments (see NetworkGenerator.java), or a network file is
+// loaded (see NetworkFile.java), with its landmark tables if they were
+// saved with it.  Queries are then read from standard
+// input, one per line as "source target" (node numbers), and answered
+// on standard output as "source target distance links" (distance is
+// "Infinity" and links is 0 if there is no path).  Queries are answered in parallel on the common
+// fork/join pool (its size can be set with the system property
+// java.util.concurrent.ForkJoinPool.common.parallelism).  A summary is
+// printed to standard error.
+//
+// Arguments: [algorithm] minNodes maxNodes linksPerNode [seed]
+//        or: [algorithm] networkFile
+//    algorithm - DIJKSTRA (default), ASTAR, LANDMARKS, BIDIRECTIONAL or
+//                CONTRACTION
+//    seed - fixes the random network, so runs can be repeated
+public class BatchQuery {
+
+	// Number of queries read before they are answered together
+	private static final int BLOCK_SIZE = 8192;
+
+	// Only used through main
+	private BatchQuery() {}
+
+	public static void main(String args[]) throws Exception {
+		
+		// Parse argument strings
+		Algorithm algorithm = Algorithm.DIJKSTRA;
+		int first = 0;
+		if (args.length > 1 && !Character.isDigit(args[0].charAt(0))) {
+			algorithm = Algorithm.valueOf(args[0].toUpperCase());
+			first = 1;
+		}
+		int numArgs = args.length - first;
+		if (numArgs != 1 && numArgs != 3 && numArgs != 4)
+			throw new Exception("Usage: BatchQuery [algorithm] minNodes maxNodes linksPerNode [seed]\n"
+					+ "   or: BatchQuery [algorithm] networkFile");
+		
+		// Build or load network and prepare it for searching
+		long startTime = System.nanoTime();
+		QueryEngine engine;
+		Landmarks saved = null;
+		if (numArgs == 1) {
+			Path path = Paths.get(args[first]);
+			Graph graph = NetworkFile.loadGraph(path);
+			if (algorithm == Algorithm.LANDMARKS)
+				saved = NetworkFile.loadLandmarks(path, graph);
+			engine = new QueryEngine(graph, algorithm, saved);
+		}
+		else {
+			int minNodes = Integer.parseInt(args[first]);
+			int maxNodes = Integer.parseInt(args[first+1]);
+			int linksPerNode = Integer.parseInt(args[first+2]);
+			Random rand = (numArgs == 4) ? new Random(Long.parseLong(args[first+3])) : new Random();
+			engine = new QueryEngine(NetworkGenerator.randomGraph(minNodes, maxNodes, linksPerNode, rand), algorithm);
+		}
+		long loadTime = System.nanoTime() - startTime;
+		
+		// Answer queries as they arrive, a block at a time: each block is
+		// spread over all processors (see QueryEngine.solveAll)
+		BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+		PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));
+		int[] sources = new int[BLOCK_SIZE];
+		int[] targets = new int[BLOCK_SIZE];
+		double[] distances = new double[BLOCK_SIZE];
+		int[] numLinks = new int[BLOCK_SIZE];
+		int numQueries = 0;
+		long queryTime = 0;
+		boolean more = true;
+		while (more) {
+			int count = 0;
+			String line;
+			while (count < BLOCK_SIZE && (line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] parts = line.split("\\s+");
+				sources[count] = Integer.parseInt(parts[0]);
+				targets[count] = Integer.parseInt(parts[1]);
+				count++;
+			}
+			more = (count == BLOCK_SIZE);
+			if (count == 0)
+				break;
+			startTime = System.nanoTime();
+			engine.solveAll(Arrays.copyOf(sources, count), Arrays.copyOf(targets, count), distances, numLinks);
+			queryTime += System.nanoTime() - startTime;
+			for (int i=0; i<count; i++)
+				out.println(sources[i] + " " + targets[i] + " " + distances[i] + " " + numLinks[i]);
+			numQueries += count;
+		}
+		out.flush();
+		
+		// Summary
+		Graph graph = engine.getGraph();
+		System.err.printf("%d nodes, %d links, prepared in %.1f ms%n",
+				graph.getNumNodes(), graph.getNumLinks(), loadTime/1e6);
+		ComponentIndex components = engine.getComponents();
+		System.err.printf("%d components, largest %d nodes%n",
+				components.getNumComponents(), components.getLargestSize());
+		ContractionHierarchy hierarchy = engine.getHierarchy();
+		if (hierarchy != null)
+			System.err.printf("Contraction hierarchy: %d shortcuts, %.1f ms, %.1f MB%n",
+					hierarchy.getNumShortcuts(), hierarchy.getPreprocessingMillis(),
+					hierarchy.getMemoryBytes()/1e6);
+		Landmarks landmarks = engine.getLandmarks();
+		if (landmarks == saved && landmarks != null)
+			System.err.printf("Landmarks: %d, read from file, %.1f MB%n",
+					landmarks.getCount(), landmarks.getMemoryBytes()/1e6);
+		else if (landmarks != null)
+			System.err.printf("Landmarks: %d, %.1f ms, %.1f MB%n",
+					landmarks.getCount(), landmarks.getPreprocessingMillis(),
+					landmarks.getMemoryBytes()/1e6);
+		System.err.printf("%d queries (%s, %d threads) in %.1f ms, %.0f queries/second%n",
+				numQueries, algorithm, ForkJoinPool.getCommonPoolParallelism(),
+				queryTime/1e6, numQueries/Math.max(queryTime/1e9, 1e-9));
+		SearchMetrics metrics = engine.getMetrics();
+		System.err.printf("Query time: %s, max %.2f ms%n", metrics, metrics.getMaxMillis());
+	}
+}
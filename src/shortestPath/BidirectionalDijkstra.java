@@ -0,0 +1,239 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+// Two Dijkstra searches at once over a Graph: one grows out from the source
+// and one grows out from the target (links are two-way, so the backward
+// search is just a forward search from the target).  Each search covers
+// roughly a circle of half the radius, which is much less area than one
+// search that has to reach all the way across.
+//
+// Stopping rule: "best" is the shortest source-to-target distance seen so
+// far through any link joining the two searches.  Every path not yet seen
+// must leave the forward search's settled area and enter the backward
+// search's settled area, so it is at least (smallest forward heap key) +
+// (smallest backward heap key) long.  Once that sum reaches "best," no
+// shorter path can exist and the search stops.
+public class BidirectionalDijkstra implements PathSearch {
+
+	private final Graph graph;
+
+	// Working arrays for each direction (index 0 = forward, 1 = backward),
+	// indexed by node number and reused between searches
+	private final double[][] distance = new double[2][];
+	private final int[][] previousSlot = new int[2][];
+	private final int[][] reached = new int[2][];
+	private final int[][] settled = new int[2][];
+	private final IndexedHeap[] heaps = new IndexedHeap[2];
+
+	// Number of the current search (see Dijkstra.java)
+	private int searchNumber = 0;
+
+	// Result of last search
+	private int lastSource = -1;
+	private int lastTarget = -1;
+	private int meetingNode = -1;	// node where the two halves of the path join
+	private double best;
+
+	// Number of nodes taken off either heap by the last search
+	private int nodesExpanded = 0;
+
+	// Number of links looked at from those nodes, and the largest number
+	// of nodes waiting on the two heaps together
+	private long edgesRelaxed = 0;
+	private int peakFrontier = 0;
+
+	// Limits on the searches (null if none), and whether the last search
+	// ran out of them before the two halves were sure to have met
+	private SearchBudget budget = null;
+	private boolean stopped = false;
+
+	// Search object is tied to one graph
+	public BidirectionalDijkstra(Graph g) {
+		graph = g;
+		int n = g.numNodes;
+		for (int side=0; side<2; side++) {
+			distance[side] = new double[n];
+			previousSlot[side] = new int[n];
+			reached[side] = new int[n];
+			settled[side] = new int[n];
+			heaps[side] = new IndexedHeap(n);
+		}
+	}
+
+	// Provide the graph being searched
+	@Override
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Find the shortest distance from node "source" to node "target" (both
+	// are node numbers in the graph).  Returns infinity if there is no path.
+	@Override
+	public double search(int source, int target) {
+		newSearch(source, target);
+		int stamp = searchNumber;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		double[] weights = graph.weights;
+
+		best = Double.POSITIVE_INFINITY;
+		meetingNode = -1;
+		if (source == target) {
+			best = 0;
+			meetingNode = source;
+			return best;
+		}
+		start(0, source);
+		start(1, target);
+		peakFrontier = 2;
+
+		while (!heaps[0].isEmpty() && !heaps[1].isEmpty()) {
+			if (heaps[0].peekKey() + heaps[1].peekKey() >= best)
+				break;
+
+			// Grow whichever search has the smaller frontier
+			int side = (heaps[0].size() <= heaps[1].size()) ? 0 : 1;
+			int other = 1 - side;
+			double[] dist = distance[side];
+			int[] reach = reached[side];
+			int[] settle = settled[side];
+			IndexedHeap heap = heaps[side];
+
+			int current = heap.poll();
+			settle[current] = stamp;
+			nodesExpanded++;
+			if (budget != null && budget.isSpent(nodesExpanded)) {
+				stopped = true;
+				break;
+			}
+			edgesRelaxed += offsets[current+1] - offsets[current];
+			double base = dist[current];
+			for (int slot = offsets[current]; slot < offsets[current+1]; slot++) {
+				int next = targets[slot];
+				if (settle[next] == stamp)
+					continue;
+				double newDistance = base + weights[slot];
+				if ((reach[next] != stamp) || (newDistance < dist[next])) {
+					reach[next] = stamp;
+					dist[next] = newDistance;
+					previousSlot[side][next] = slot;
+					heap.push(next, newDistance);
+				}
+				// Does this link join the two searches with a shorter path?
+				if (reached[other][next] == stamp) {
+					double total = dist[next] + distance[other][next];
+					if (total < best) {
+						best = total;
+						meetingNode = next;
+					}
+				}
+			}
+			peakFrontier = Math.max(peakFrontier, heaps[0].size() + heaps[1].size());
+		}
+		heaps[0].clear();
+		heaps[1].clear();
+		return best;
+	}
+
+	// Number of nodes expanded (by both searches) in the last search
+	@Override
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Number of links looked at (by both searches) in the last search
+	@Override
+	public long getEdgesRelaxed() {
+		return edgesRelaxed;
+	}
+
+	// Number of heap pushes, key decreases and polls in the last search
+	@Override
+	public long getHeapOperations() {
+		return heaps[0].getOperations() + heaps[1].getOperations();
+	}
+
+	// Largest number of nodes waiting on both heaps during the last search
+	@Override
+	public int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	// Limit the searches that follow to a budget (null for no limit)
+	@Override
+	public void setBudget(SearchBudget b) {
+		budget = b;
+	}
+
+	// Did the last search stop early?  (See PathSearch.java)
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	// Distance found by the last search (infinity if there is no path)
+	public double getDistance() {
+		return best;
+	}
+
+	// Links of the path found by the last search, from source to target,
+	// or null if there is no path
+	@Override
+	public ArrayList<Link> getPath() {
+		if (meetingNode < 0)
+			return null;
+		if (lastSource == lastTarget)
+			return new ArrayList<Link>();
+
+		// Forward half: walk back from the meeting node to the source
+		ArrayList<Link> path = new ArrayList<Link>();
+		int node = meetingNode;
+		while (node != lastSource) {
+			int slot = previousSlot[0][node];
+			path.add(graph.getLink(slot));
+			node = graph.getSlotOwner(slot);
+		}
+		Collections.reverse(path);
+
+		// Backward half: walk on from the meeting node to the target
+		node = meetingNode;
+		while (node != lastTarget) {
+			int slot = previousSlot[1][node];
+			path.add(graph.getLink(slot));
+			node = graph.getSlotOwner(slot);
+		}
+		return path;
+	}
+
+	// Put the first node of one direction on its heap
+	private void start(int side, int node) {
+		reached[side][node] = searchNumber;
+		distance[side][node] = 0;
+		heaps[side].push(node, 0);
+	}
+
+	// Start a new search (see Dijkstra.java)
+	private void newSearch(int source, int target) {
+		searchNumber++;
+		if (searchNumber == Integer.MAX_VALUE) {
+			for (int side=0; side<2; side++) {
+				Arrays.fill(reached[side], 0);
+				Arrays.fill(settled[side], 0);
+			}
+			searchNumber = 1;
+		}
+		lastSource = source;
+		lastTarget = target;
+		nodesExpanded = 0;
+		edgesRelaxed = 0;
+		peakFrontier = 0;
+		heaps[0].resetCounters();
+		heaps[1].resetCounters();
+		stopped = false;
+		if (budget != null)
+			budget.start();
+	}
+}
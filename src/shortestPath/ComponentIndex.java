@@ -0,0 +1,132 @@
+package shortestPath;
+
+import java.util.Arrays;
+
+// Which nodes are connected to which, kept as a "union-find" (disjoint set)
+// structure: every node points toward a representative node for its
+// connected piece ("component") of the network, so two nodes are connected
+// exactly when they lead to the same representative.  Answering that takes
+// a few array reads, far less than any search, so searches between nodes
+// in different pieces can be turned down before they start.
+//
+// Joining two pieces (a link switched on) is just as quick.  Splitting one
+// (a link switched off or a node removed) can't be done in place; the
+// network then throws the index away and builds a new one the next time
+// it is asked (see Network.getComponents).
+public class ComponentIndex {
+
+	// parent[v] = the node v points toward (itself for a representative)
+	private int[] parent;
+
+	// size[r] = number of nodes in the component of representative r
+	private int[] size;
+
+	private int numNodes;
+	private int numComponents;
+
+	// Index of n nodes with no links (each its own component)
+	public ComponentIndex(int n) {
+		parent = new int[Math.max(n, 16)];
+		size = new int[parent.length];
+		for (int v=0; v<n; v++) {
+			parent[v] = v;
+			size[v] = 1;
+		}
+		numNodes = n;
+		numComponents = n;
+	}
+
+	// Index of the components of a graph (flattened, see flatten)
+	public ComponentIndex(Graph g) {
+		this(g.numNodes);
+		for (int node=0; node<g.numNodes; node++) {
+			for (int slot = g.offsets[node]; slot < g.offsets[node+1]; slot++)
+				union(node, g.targets[slot]);
+		}
+		flatten();
+	}
+
+	// "GET" METHODS
+
+	// Provide number of nodes
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	// Provide number of components (a node without links counts as one)
+	public int getNumComponents() {
+		return numComponents;
+	}
+
+	// Are two nodes connected?
+	public boolean connected(int a, int b) {
+		return find(a) == find(b);
+	}
+
+	// Provide the number of nodes in a node's component (itself included)
+	public int getComponentSize(int node) {
+		return size[find(node)];
+	}
+
+	// Provide the number of nodes in the largest component
+	public int getLargestSize() {
+		int largest = 0;
+		for (int v=0; v<numNodes; v++) {
+			if (parent[v] == v)
+				largest = Math.max(largest, size[v]);
+		}
+		return largest;
+	}
+
+	// Provide the representative node of a node's component.  On the way,
+	// every other node passed is pointed at its grandparent ("path
+	// halving"), which keeps the chains short.  Nothing is written once
+	// every node points straight at its representative (see flatten), so
+	// a flattened index can be read by many threads at once.
+	public int find(int node) {
+		while (parent[node] != node) {
+			int grandparent = parent[parent[node]];
+			if (parent[node] != grandparent)
+				parent[node] = grandparent;
+			node = grandparent;
+		}
+		return node;
+	}
+
+	// "SET" METHODS
+
+	// Point every node straight at its representative
+	public void flatten() {
+		for (int v=0; v<numNodes; v++)
+			parent[v] = find(v);
+	}
+
+	// Add a node with no links; returns its number
+	public int addNode() {
+		if (numNodes == parent.length) {
+			parent = Arrays.copyOf(parent, numNodes*2);
+			size = Arrays.copyOf(size, numNodes*2);
+		}
+		parent[numNodes] = numNodes;
+		size[numNodes] = 1;
+		numComponents++;
+		return numNodes++;
+	}
+
+	// Join the components of two nodes (a link between them was switched
+	// on).  The smaller component is hung under the larger one.
+	public void union(int a, int b) {
+		int rootA = find(a);
+		int rootB = find(b);
+		if (rootA == rootB)
+			return;
+		if (size[rootA] < size[rootB]) {
+			int swap = rootA;
+			rootA = rootB;
+			rootB = swap;
+		}
+		parent[rootB] = rootA;
+		size[rootA] += size[rootB];
+		numComponents--;
+	}
+}
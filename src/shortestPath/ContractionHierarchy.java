@@ -0,0 +1,662 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+
+// A "contraction hierarchy" built once over a Graph, so that many later
+// queries on the same graph can be answered very quickly.
+//
+// Preprocessing: nodes are removed ("contracted") one at a time, least
+// important first.  When a node is removed, any shortest path that went
+// through it between two of its neighbours is kept by adding a "shortcut"
+// link between those neighbours (unless a "witness" path that avoids the
+// node is at least as short).  A node's importance is estimated from how
+// many shortcuts removing it would add, less the links it would take away,
+// plus how many of its neighbours are already gone (which spreads the
+// removals evenly over the graph).  The order of removal is the node's rank.
+//
+// Queries: every shortest path can be walked as a climb to higher ranks
+// followed by a descent, using original links and shortcuts.  So the query
+// runs two Dijkstra searches, one from each end, that only ever follow
+// links up to higher ranked nodes; they meet at the top of the path.  Both
+// searches stay small no matter how far apart the ends are.  Shortcuts
+// found on the path are then unpacked into the original links.
+//
+// The hierarchy never changes once built and can be shared by any number
+// of threads, each using its own search object (see newSearch).
+public class ContractionHierarchy {
+
+	// Most nodes a witness search may settle before giving up (giving up
+	// only costs an unneeded shortcut, never a wrong answer)
+	private static final int WITNESS_SETTLE_LIMIT = 64;
+
+	private final Graph graph;
+
+	// rank[i] = order in which node i was contracted
+	private final int[] rank;
+
+	// Links of the hierarchy ("edges"), original links first, then
+	// shortcuts.  An edge joins edgeU and edgeV.  For an original link,
+	// edgeSlot is its graph slot; for a shortcut it is -1 and the shortcut
+	// stands for edge edgeFirst (edgeU to the skipped node) followed by
+	// edge edgeSecond (skipped node to edgeV).
+	private int numEdges;
+	private int[] edgeU;
+	private int[] edgeV;
+	private int[] edgeSlot;
+	private int[] edgeFirst;
+	private int[] edgeSecond;
+	private double[] edgeWeight;	// only kept while building
+
+	// Upward graph in CSR layout: the edges from each node to higher
+	// ranked nodes (see Graph.java for the layout)
+	private final int[] upOffsets;
+	private final int[] upTargets;
+	private final double[] upWeights;
+	private final int[] upEdges;
+
+	// Preprocessing report
+	private final int numShortcuts;
+	private final long preprocessingNanos;
+
+	// Working lists used only while contracting: the edges between nodes
+	// not yet contracted
+	private int[][] adjacentNode;
+	private double[][] adjacentWeight;
+	private int[][] adjacentEdge;
+	private int[] degree;
+	private int[] contractedNeighbours;	// neighbours already contracted
+	private int[] level;				// height in the hierarchy so far
+
+	// Working arrays for witness searches
+	private double[] witnessDistance;
+	private int[] witnessReached;
+	private int[] witnessTarget;	// search number that is looking for the node
+	private int witnessNumber = 0;
+	private IndexedHeap witnessHeap;
+
+	// Budget for building (null for none), and work done so far
+	private SearchBudget budget;
+	private long work = 0;
+
+	// Build the hierarchy for a graph
+	public ContractionHierarchy(Graph g) {
+		this(g, null);
+	}
+
+	// Same, counting the work (each node looked at for contraction, and
+	// each node a witness search settles, counts as one expansion) against
+	// a budget (see SearchBudget.java; null for
+	// none), for the search the hierarchy is built for.  Throws
+	// CancellationException if the budget runs out first.
+	ContractionHierarchy(Graph g, SearchBudget b) {
+		long startTime = System.nanoTime();
+		budget = b;
+		if (budget != null)
+			budget.start();
+		graph = g;
+		int n = g.numNodes;
+		rank = new int[n];
+
+		// Start with the original links (each once, from its lower numbered end)
+		int numLinks = g.getNumLinks();
+		edgeU = new int[numLinks*2 + 16];
+		edgeV = new int[edgeU.length];
+		edgeSlot = new int[edgeU.length];
+		edgeFirst = new int[edgeU.length];
+		edgeSecond = new int[edgeU.length];
+		edgeWeight = new double[edgeU.length];
+		adjacentNode = new int[n][];
+		adjacentWeight = new double[n][];
+		adjacentEdge = new int[n][];
+		degree = new int[n];
+		for (int node=0; node<n; node++) {
+			int size = g.offsets[node+1] - g.offsets[node];
+			adjacentNode[node] = new int[Math.max(size, 2)];
+			adjacentWeight[node] = new double[Math.max(size, 2)];
+			adjacentEdge[node] = new int[Math.max(size, 2)];
+		}
+		for (int node=0; node<n; node++) {
+			for (int slot = g.offsets[node]; slot < g.offsets[node+1]; slot++) {
+				int other = g.targets[slot];
+				if (other > node)
+					addEdge(node, other, g.weights[slot], slot, -1, -1);
+			}
+		}
+
+		// Contract nodes, least important first.  Importance is only
+		// checked again when a node comes to the top of the queue ("lazy
+		// updates"): if it got more important since it was queued, it
+		// goes back in the queue.
+		witnessDistance = new double[n];
+		witnessReached = new int[n];
+		witnessTarget = new int[n];
+		witnessHeap = new IndexedHeap(n);
+		contractedNeighbours = new int[n];
+		level = new int[n];
+		IndexedHeap queue = new IndexedHeap(n);
+		for (int node=0; node<n; node++) {
+			queue.push(node, importance(node));
+			checkBudget();
+		}
+
+		// Upward edges of each node are its remaining edges at the moment
+		// it is contracted (all of them lead to nodes contracted later)
+		int[][] up = new int[n][];
+		int shortcuts = 0;
+		int nextRank = 0;
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			checkBudget();
+			double priority = importance(node);
+			if (!queue.isEmpty() && priority > queue.peekKey()) {
+				queue.push(node, priority);
+				continue;
+			}
+			up[node] = Arrays.copyOf(adjacentEdge[node], degree[node]);
+			shortcuts += contract(node, true);
+			rank[node] = nextRank++;
+
+			// Take the node out of its neighbours' lists
+			for (int i=0; i<degree[node]; i++) {
+				int other = adjacentNode[node][i];
+				contractedNeighbours[other]++;
+				level[other] = Math.max(level[other], level[node] + 1);
+				removeAdjacent(other, node);
+			}
+		}
+		numShortcuts = shortcuts;
+		if (budget != null)
+			budget.carryOver(work);
+
+		// Lay the upward edges out in CSR form
+		upOffsets = new int[n+1];
+		for (int node=0; node<n; node++)
+			upOffsets[node+1] = upOffsets[node] + up[node].length;
+		upTargets = new int[upOffsets[n]];
+		upWeights = new double[upOffsets[n]];
+		upEdges = new int[upOffsets[n]];
+		for (int node=0; node<n; node++) {
+			for (int i=0; i<up[node].length; i++) {
+				int e = up[node][i];
+				int slot = upOffsets[node] + i;
+				upEdges[slot] = e;
+				upTargets[slot] = otherEnd(e, node);
+				upWeights[slot] = edgeWeight[e];
+			}
+		}
+
+		// Trim the edge arrays and drop the working storage
+		edgeU = Arrays.copyOf(edgeU, numEdges);
+		edgeV = Arrays.copyOf(edgeV, numEdges);
+		edgeSlot = Arrays.copyOf(edgeSlot, numEdges);
+		edgeFirst = Arrays.copyOf(edgeFirst, numEdges);
+		edgeSecond = Arrays.copyOf(edgeSecond, numEdges);
+		edgeWeight = null;
+		adjacentNode = null;
+		adjacentWeight = null;
+		adjacentEdge = null;
+		degree = null;
+		contractedNeighbours = null;
+		level = null;
+		witnessDistance = null;
+		witnessReached = null;
+		witnessTarget = null;
+		witnessHeap = null;
+		budget = null;
+		preprocessingNanos = System.nanoTime() - startTime;
+	}
+
+	// "GET" METHODS
+
+	// Provide the graph the hierarchy was built for
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Order in which a node was contracted (higher is more important)
+	public int getRank(int node) {
+		return rank[node];
+	}
+
+	// Number of shortcut links added by preprocessing
+	public int getNumShortcuts() {
+		return numShortcuts;
+	}
+
+	// Time taken to build the hierarchy, in milliseconds
+	public double getPreprocessingMillis() {
+		return preprocessingNanos/1e6;
+	}
+
+	// Approximate memory taken by the hierarchy beyond the graph itself,
+	// in bytes (array contents only; each search object adds its own)
+	public long getMemoryBytes() {
+		long ints = (long) rank.length + upOffsets.length + upTargets.length + upEdges.length
+				+ 5L*numEdges;
+		return 4*ints + 8L*upWeights.length;
+	}
+
+	// Make a search object for this hierarchy (one per thread)
+	public PathSearch newSearch() {
+		return new Search();
+	}
+
+	// CONTRACTION
+
+	// Count one step of work, and give up building if the budget (if any)
+	// has run out
+	private void checkBudget() {
+		if (budget != null && budget.isSpent(++work))
+			throw new CancellationException("Contraction hierarchy was not finished within the budget");
+	}
+
+	// How important a node is right now (lower is contracted sooner)
+	private double importance(int node) {
+		return 2*(contract(node, false) - degree[node]) + contractedNeighbours[node] + level[node];
+	}
+
+	// Find the shortcuts needed to contract a node, adding them if "add" is
+	// true.  Returns the number of shortcuts.
+	private int contract(int node, boolean add) {
+		int count = 0;
+		int size = degree[node];
+		// (shortcuts only join the node's neighbours, so these lists don't
+		// change while the shortcuts are added)
+		int[] neighbours = adjacentNode[node];
+		double[] weights = adjacentWeight[node];
+		int[] edges = adjacentEdge[node];
+		// (the last neighbour has no later neighbours to pair with; links
+		// may weigh 0, so a limit of weights[i] + 0 still needs a search)
+		for (int i=0; i<size-1; i++) {
+			int u = neighbours[i];
+			double maxWeight = 0;
+			for (int j=i+1; j<size; j++)
+				maxWeight = Math.max(maxWeight, weights[j]);
+			witnessSearch(u, node, weights[i] + maxWeight, neighbours, i+1, size);
+			for (int j=i+1; j<size; j++) {
+				int w = neighbours[j];
+				double viaNode = weights[i] + weights[j];
+				if ((witnessReached[w] == witnessNumber) && (witnessDistance[w] <= viaNode))
+					continue;
+				count++;
+				if (add)
+					addShortcut(u, w, viaNode, edges[i], edges[j]);
+			}
+		}
+		return count;
+	}
+
+	// Dijkstra search from "source" among nodes not yet contracted, going
+	// around "skip", and stopping past "limit", after settling
+	// WITNESS_SETTLE_LIMIT nodes, or once the nodes targets[begin] to
+	// targets[end-1] are all settled
+	private void witnessSearch(int source, int skip, double limit, int[] targets, int begin, int end) {
+		witnessNumber++;
+		if (witnessNumber == Integer.MAX_VALUE) {
+			Arrays.fill(witnessReached, 0);
+			Arrays.fill(witnessTarget, 0);
+			witnessNumber = 1;
+		}
+		int stamp = witnessNumber;
+		for (int i=begin; i<end; i++)
+			witnessTarget[targets[i]] = stamp;
+		int targetsLeft = end - begin;
+		witnessReached[source] = stamp;
+		witnessDistance[source] = 0;
+		witnessHeap.push(source, 0);
+		int settledCount = 0;
+		while (!witnessHeap.isEmpty()) {
+			if (witnessHeap.peekKey() > limit || settledCount++ >= WITNESS_SETTLE_LIMIT)
+				break;
+			int current = witnessHeap.poll();
+			checkBudget();
+			if ((witnessTarget[current] == stamp) && (--targetsLeft == 0))
+				break;
+			double base = witnessDistance[current];
+			for (int i=0; i<degree[current]; i++) {
+				int next = adjacentNode[current][i];
+				if (next == skip)
+					continue;
+				double newDistance = base + adjacentWeight[current][i];
+				if ((witnessReached[next] != stamp) || (newDistance < witnessDistance[next])) {
+					witnessReached[next] = stamp;
+					witnessDistance[next] = newDistance;
+					witnessHeap.push(next, newDistance);
+				}
+			}
+		}
+		witnessHeap.clear();
+	}
+
+	// Add a shortcut from u to w, made of edge "first" (u to the contracted
+	// node) and edge "second" (contracted node to w).  If u and w are
+	// already joined by a longer edge, that edge is replaced.
+	private void addShortcut(int u, int w, double weight, int first, int second) {
+		for (int i=0; i<degree[u]; i++) {
+			if (adjacentNode[u][i] == w) {
+				if (adjacentWeight[u][i] <= weight)
+					return;
+				int e = newEdge(u, w, weight, -1, first, second);
+				adjacentWeight[u][i] = weight;
+				adjacentEdge[u][i] = e;
+				for (int k=0; k<degree[w]; k++) {
+					if (adjacentNode[w][k] == u) {
+						adjacentWeight[w][k] = weight;
+						adjacentEdge[w][k] = e;
+					}
+				}
+				return;
+			}
+		}
+		addEdge(u, w, weight, -1, first, second);
+	}
+
+	// Create an edge and list it at both of its ends
+	private void addEdge(int u, int v, double weight, int slot, int first, int second) {
+		int e = newEdge(u, v, weight, slot, first, second);
+		addAdjacent(u, v, weight, e);
+		addAdjacent(v, u, weight, e);
+	}
+
+	// Create an edge (only in the edge arrays)
+	private int newEdge(int u, int v, double weight, int slot, int first, int second) {
+		if (numEdges == edgeU.length) {
+			int size = numEdges*2;
+			edgeU = Arrays.copyOf(edgeU, size);
+			edgeV = Arrays.copyOf(edgeV, size);
+			edgeSlot = Arrays.copyOf(edgeSlot, size);
+			edgeFirst = Arrays.copyOf(edgeFirst, size);
+			edgeSecond = Arrays.copyOf(edgeSecond, size);
+			edgeWeight = Arrays.copyOf(edgeWeight, size);
+		}
+		edgeU[numEdges] = u;
+		edgeV[numEdges] = v;
+		edgeSlot[numEdges] = slot;
+		edgeFirst[numEdges] = first;
+		edgeSecond[numEdges] = second;
+		edgeWeight[numEdges] = weight;
+		return numEdges++;
+	}
+
+	private void addAdjacent(int node, int other, double weight, int edge) {
+		int size = degree[node];
+		if (size == adjacentNode[node].length) {
+			adjacentNode[node] = Arrays.copyOf(adjacentNode[node], size*2);
+			adjacentWeight[node] = Arrays.copyOf(adjacentWeight[node], size*2);
+			adjacentEdge[node] = Arrays.copyOf(adjacentEdge[node], size*2);
+		}
+		adjacentNode[node][size] = other;
+		adjacentWeight[node][size] = weight;
+		adjacentEdge[node][size] = edge;
+		degree[node]++;
+	}
+
+	// Take "other" out of a node's list (the last entry fills the gap)
+	private void removeAdjacent(int node, int other) {
+		int last = degree[node] - 1;
+		for (int i=0; i<=last; i++) {
+			if (adjacentNode[node][i] == other) {
+				adjacentNode[node][i] = adjacentNode[node][last];
+				adjacentWeight[node][i] = adjacentWeight[node][last];
+				adjacentEdge[node][i] = adjacentEdge[node][last];
+				degree[node]--;
+				return;
+			}
+		}
+	}
+
+	// Add the original links of an edge to a path, walking the edge from
+	// node "from" to its other end.  Uses its own stack rather than
+	// recursion, since shortcuts can be nested very deeply.
+	private void unpack(int edge, int from, ArrayList<Link> path) {
+		int[] stack = new int[32];
+		int top = 0;
+		stack[top++] = edge;
+		stack[top++] = from;
+		while (top > 0) {
+			int node = stack[--top];
+			int e = stack[--top];
+			if (edgeSlot[e] >= 0) {
+				path.add(graph.getLink(edgeSlot[e]));
+				continue;
+			}
+			// The part touching "node" is walked first, so it goes on top
+			int near = edgeFirst[e];
+			int far = edgeSecond[e];
+			if (edgeU[near] != node && edgeV[near] != node) {
+				near = edgeSecond[e];
+				far = edgeFirst[e];
+			}
+			int middle = (edgeU[near] == node) ? edgeV[near] : edgeU[near];
+			if (top + 4 > stack.length)
+				stack = Arrays.copyOf(stack, stack.length*2);
+			stack[top++] = far;
+			stack[top++] = middle;
+			stack[top++] = near;
+			stack[top++] = node;
+		}
+	}
+
+	// Other end of an edge
+	private int otherEnd(int edge, int node) {
+		return (edgeU[edge] == node) ? edgeV[edge] : edgeU[edge];
+	}
+
+	// QUERIES
+
+	// A query over the hierarchy, with its own working arrays (see
+	// BidirectionalDijkstra.java, which this follows).  Only one thread
+	// may use a search object at a time.
+	private class Search implements PathSearch {
+
+		// Working arrays for each direction (0 = from source, 1 = from target)
+		private final double[][] distance = new double[2][];
+		private final int[][] previousEdge = new int[2][];
+		private final int[][] reached = new int[2][];
+		private final IndexedHeap[] heaps = new IndexedHeap[2];
+
+		// Number of the current search (see Dijkstra.java)
+		private int searchNumber = 0;
+
+		// Result of last search
+		private int lastSource = -1;
+		private int lastTarget = -1;
+		private int meetingNode = -1;	// highest node of the path
+		private double best;
+
+		// Number of nodes taken off either heap by the last search
+		private int nodesExpanded = 0;
+
+		// Number of upward edges followed from those nodes, and the
+		// largest number of nodes waiting on the two heaps together
+		private long edgesRelaxed = 0;
+		private int peakFrontier = 0;
+
+		// Limits on the searches (null if none), and whether the last
+		// search ran out of them
+		private SearchBudget budget = null;
+		private boolean stopped = false;
+
+		Search() {
+			int n = graph.numNodes;
+			for (int side=0; side<2; side++) {
+				distance[side] = new double[n];
+				previousEdge[side] = new int[n];
+				reached[side] = new int[n];
+				heaps[side] = new IndexedHeap(n);
+			}
+		}
+
+		@Override
+		public Graph getGraph() {
+			return graph;
+		}
+
+		@Override
+		public double search(int source, int target) {
+			newSearch(source, target);
+			int stamp = searchNumber;
+			best = Double.POSITIVE_INFINITY;
+			meetingNode = -1;
+			start(0, source);
+			start(1, target);
+			peakFrontier = heaps[0].size() + heaps[1].size();
+
+			// Each side searches upward until its smallest key is no
+			// better than the best meeting found (the two sides' smallest
+			// keys can't simply be added here, since both climb)
+			while (true) {
+				boolean forward = !heaps[0].isEmpty() && heaps[0].peekKey() < best;
+				boolean backward = !heaps[1].isEmpty() && heaps[1].peekKey() < best;
+				if (!forward && !backward)
+					break;
+				int side;
+				if (forward && backward)
+					side = (heaps[0].peekKey() <= heaps[1].peekKey()) ? 0 : 1;
+				else
+					side = forward ? 0 : 1;
+				double[] dist = distance[side];
+				int[] reach = reached[side];
+				IndexedHeap heap = heaps[side];
+
+				int current = heap.poll();
+				nodesExpanded++;
+				double base = dist[current];
+				if (reached[1-side][current] == stamp) {
+					double total = base + distance[1-side][current];
+					if (total < best) {
+						best = total;
+						meetingNode = current;
+					}
+				}
+				if (budget != null && budget.isSpent(nodesExpanded)) {
+					stopped = true;
+					break;
+				}
+				// "Stall on demand": links are two-way, so if a higher
+				// node already reached offers a shorter way down to this
+				// node, this node can't be on the path and isn't expanded
+				if (stalled(side, current, stamp))
+					continue;
+				edgesRelaxed += upOffsets[current+1] - upOffsets[current];
+				for (int slot = upOffsets[current]; slot < upOffsets[current+1]; slot++) {
+					int next = upTargets[slot];
+					double newDistance = base + upWeights[slot];
+					if ((reach[next] != stamp) || (newDistance < dist[next])) {
+						reach[next] = stamp;
+						dist[next] = newDistance;
+						previousEdge[side][next] = upEdges[slot];
+						heap.push(next, newDistance);
+					}
+				}
+				peakFrontier = Math.max(peakFrontier, heaps[0].size() + heaps[1].size());
+			}
+			heaps[0].clear();
+			heaps[1].clear();
+			return best;
+		}
+
+		@Override
+		public int getNodesExpanded() {
+			return nodesExpanded;
+		}
+
+		@Override
+		public long getEdgesRelaxed() {
+			return edgesRelaxed;
+		}
+
+		@Override
+		public long getHeapOperations() {
+			return heaps[0].getOperations() + heaps[1].getOperations();
+		}
+
+		@Override
+		public int getPeakFrontier() {
+			return peakFrontier;
+		}
+
+		@Override
+		public void setBudget(SearchBudget b) {
+			budget = b;
+		}
+
+		@Override
+		public boolean isStopped() {
+			return stopped;
+		}
+
+		@Override
+		public ArrayList<Link> getPath() {
+			if (meetingNode < 0)
+				return null;
+
+			// Climb from the source: edges found walking back down from
+			// the meeting node, then unpacked in source-to-top order
+			ArrayList<Integer> climb = new ArrayList<Integer>();
+			int node = meetingNode;
+			while (node != lastSource) {
+				int e = previousEdge[0][node];
+				climb.add(e);
+				node = otherEnd(e, node);
+			}
+			Collections.reverse(climb);
+			ArrayList<Link> path = new ArrayList<Link>();
+			node = lastSource;
+			for (int e : climb) {
+				unpack(e, node, path);
+				node = otherEnd(e, node);
+			}
+
+			// Descent from the meeting node to the target
+			node = meetingNode;
+			while (node != lastTarget) {
+				int e = previousEdge[1][node];
+				unpack(e, node, path);
+				node = otherEnd(e, node);
+			}
+			return path;
+		}
+
+		// Is there a shorter way to a node from one of its higher neighbours?
+		private boolean stalled(int side, int node, int stamp) {
+			double dist = distance[side][node];
+			for (int slot = upOffsets[node]; slot < upOffsets[node+1]; slot++) {
+				int higher = upTargets[slot];
+				if ((reached[side][higher] == stamp) && (distance[side][higher] + upWeights[slot] < dist))
+					return true;
+			}
+			return false;
+		}
+
+		// Put the first node of one direction on its heap
+		private void start(int side, int node) {
+			reached[side][node] = searchNumber;
+			distance[side][node] = 0;
+			heaps[side].push(node, 0);
+		}
+
+		// Start a new search (see Dijkstra.java)
+		private void newSearch(int source, int target) {
+			searchNumber++;
+			if (searchNumber == Integer.MAX_VALUE) {
+				for (int side=0; side<2; side++)
+					Arrays.fill(reached[side], 0);
+				searchNumber = 1;
+			}
+			lastSource = source;
+			lastTarget = target;
+			nodesExpanded = 0;
+			edgesRelaxed = 0;
+			peakFrontier = 0;
+			heaps[0].resetCounters();
+			heaps[1].resetCounters();
+			stopped = false;
+			if (budget != null)
+				budget.start();
+		}
+	}
+}
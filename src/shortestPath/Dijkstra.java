@@ -0,0 +1,201 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Dijkstra's shortest path search over a Graph.  All the working arrays are
+// made once, when the search object is created, and are reused by every
+// search after that, so searching does not create any objects.  Instead of
+// wiping the arrays before each search, every node is stamped with the
+// number of the search that last touched it; a node with an old stamp
+// simply counts as "not reached yet."
+public class Dijkstra implements PathSearch {
+
+	private final Graph graph;
+
+	// Working arrays (indexed by node number)
+	private final double[] distance;	// best known distance from source
+	private final int[] previousSlot;	// graph slot of the link used to get there
+	private final int[] reached;		// search number that last reached the node
+	private final int[] settled;		// search number that last settled the node
+	private final IndexedHeap heap;
+
+	// Number of the current search (see "reached" and "settled")
+	private int searchNumber = 0;
+
+	// Last search performed
+	private int lastSource = -1;
+	private int lastTarget = -1;
+	
+	// Number of nodes taken off the heap by the last search
+	private int nodesExpanded = 0;
+
+	// Number of links looked at from those nodes
+	private long edgesRelaxed = 0;
+
+	// Limits on the searches (null if none), and whether the last search
+	// ran out of them before reaching the target
+	private SearchBudget budget = null;
+	private boolean stopped = false;
+
+	// Search object is tied to one graph
+	public Dijkstra(Graph g) {
+		graph = g;
+		int n = g.numNodes;
+		distance = new double[n];
+		previousSlot = new int[n];
+		reached = new int[n];
+		settled = new int[n];
+		heap = new IndexedHeap(n);
+	}
+
+	// Provide the graph being searched
+	@Override
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Find the shortest distance from node "source" to node "target" (both
+	// are node numbers in the graph).  Returns infinity if there is no path.
+	@Override
+	public double search(int source, int target) {
+		run(source, target);
+		return getDistance(target);
+	}
+
+	// Find the shortest distance from node "source" to every node it is
+	// connected to (the search only stops once all of them are settled).
+	// Returns the distances and the tree of shortest paths.
+	public ShortestPathTree searchAll(int source) {
+		run(source, -1);
+		int n = graph.numNodes;
+		double[] distances = new double[n];
+		int[] parents = new int[n];
+		int[] parentSlots = new int[n];
+		for (int node=0; node<n; node++) {
+			distances[node] = getDistance(node);
+			if ((node == source) || (reached[node] != searchNumber)) {
+				parents[node] = -1;
+				parentSlots[node] = -1;
+			}
+			else {
+				parentSlots[node] = previousSlot[node];
+				parents[node] = graph.getSlotOwner(previousSlot[node]);
+			}
+		}
+		return new ShortestPathTree(graph, source, distances, parents, parentSlots);
+	}
+
+	// The search itself ("target" of -1 means search the whole graph)
+	private void run(int source, int target) {
+		newSearch(source, target);
+		int stamp = searchNumber;
+		int[] offsets = graph.offsets;
+		int[] targets = graph.targets;
+		double[] weights = graph.weights;
+
+		reached[source] = stamp;
+		distance[source] = 0;
+		heap.push(source, 0);
+		while (!heap.isEmpty()) {
+			int current = heap.poll();
+			settled[current] = stamp;
+			nodesExpanded++;
+			if (current == target)
+				break;
+			if (budget != null && budget.isSpent(nodesExpanded)) {
+				stopped = true;
+				break;
+			}
+			edgesRelaxed += offsets[current+1] - offsets[current];
+			double base = distance[current];
+			for (int slot = offsets[current]; slot < offsets[current+1]; slot++) {
+				int next = targets[slot];
+				if (settled[next] == stamp)
+					continue;
+				double newDistance = base + weights[slot];
+				if ((reached[next] != stamp) || (newDistance < distance[next])) {
+					reached[next] = stamp;
+					distance[next] = newDistance;
+					previousSlot[next] = slot;
+					heap.push(next, newDistance);
+				}
+			}
+		}
+		heap.clear();
+	}
+
+	// Number of nodes expanded by the last search
+	@Override
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Number of links looked at by the last search
+	@Override
+	public long getEdgesRelaxed() {
+		return edgesRelaxed;
+	}
+
+	// Number of heap pushes, key decreases and polls in the last search
+	@Override
+	public long getHeapOperations() {
+		return heap.getOperations();
+	}
+
+	// Largest number of nodes waiting on the heap during the last search
+	@Override
+	public int getPeakFrontier() {
+		return heap.getPeakSize();
+	}
+
+	// Limit the searches that follow to a budget (null for no limit)
+	@Override
+	public void setBudget(SearchBudget b) {
+		budget = b;
+	}
+
+	// Did the last search stop early?  (See PathSearch.java)
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	// Distance to a node found by the last search (infinity if not reached)
+	public double getDistance(int node) {
+		if (reached[node] != searchNumber)
+			return Double.POSITIVE_INFINITY;
+		return distance[node];
+	}
+
+	// Links of the path found by the last search, from source to target,
+	// or null if there is no path.  (The target is settled unless the
+	// search was stopped early, in which case this is the best path found
+	// by then.)
+	@Override
+	public ArrayList<Link> getPath() {
+		if ((lastTarget < 0) || (reached[lastTarget] != searchNumber))
+			return null;
+		return graph.toLinks(previousSlot, lastSource, lastTarget);
+	}
+
+	// Start a new search: bump the search number so that every node
+	// counts as untouched.  On the (very rare) wrap-around of the
+	// counter, the stamps are actually cleared.
+	private void newSearch(int source, int target) {
+		searchNumber++;
+		if (searchNumber == Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			Arrays.fill(settled, 0);
+			searchNumber = 1;
+		}
+		lastSource = source;
+		lastTarget = target;
+		nodesExpanded = 0;
+		edgesRelaxed = 0;
+		heap.resetCounters();
+		stopped = false;
+		if (budget != null)
+			budget.start();
+	}
+}
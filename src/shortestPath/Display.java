@@ -6,6 +6,7 @@ import java.awt.Graphics;
 import java.awt.GraphicsConfiguration;
 import java.awt.GraphicsEnvironment;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
@@ -25,11 +26,38 @@ class Display extends Canvas {
 	private int CanvasHeight = 500;
 	private Color BackgroundColor = Color.GRAY;
 	
+	// How far a node graphic reaches beyond its click area, in pixels
+	private static final int NodeMargin = 3;
+	
+	// Distance of a node's label from the node's center, in pixels
+	private static final int NodeLabelOffset = 7;
+	
 	// Buffered graphics objects
 	private GraphicsConfiguration graphicsconfiguration;
 	private BufferedImage bufferedimage;
 	private Graphics bufferedgraphics;
 	
+	// Static layer: background, active links and nodes, drawn once and then
+	// copied into the buffer on every repaint.  It only has to be drawn again
+	// when the network is edited (the network's version number changes) or a
+	// click changes a node (see mouseClicked).  Highlighted links and path
+	// links change while hovering and are drawn on top each time.
+	private BufferedImage layerimage;
+	private Graphics layergraphics;
+	private boolean layerValid = false;
+	private int layerVersion;
+	
+	// Distances from the start node to every node, shown next to the nodes
+	// (null if not shown).  Dropped as soon as the network is edited.
+	private ShortestPathTree distances;
+	private int distancesVersion;
+	private Color DistanceColor = Color.WHITE;
+	
+	// Nodes picked as the beginning and end of the path (null if none),
+	// so that a click only has to change the old one and the new one
+	private Node startNode = null;
+	private Node finishNode = null;
+	
 	// Node to be moved from one location to another (see below)
 	// private Node moveNode = null; 
 	
@@ -43,6 +71,8 @@ class Display extends Canvas {
 		graphicsconfiguration = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
 		bufferedimage = graphicsconfiguration.createCompatibleImage(CanvasWidth, CanvasHeight);
 		bufferedgraphics = bufferedimage.getGraphics();
+		layerimage = graphicsconfiguration.createCompatibleImage(CanvasWidth, CanvasHeight);
+		layergraphics = layerimage.getGraphics();
 		
 		addMouseListener(new MouseListener(){
 			
@@ -50,9 +80,6 @@ class Display extends Canvas {
 			@Override
 			public void mouseClicked(MouseEvent e){
 				
-				// Save network locally
-				ArrayList<Node> nodes = network.getNodes();
-				ArrayList<Link> links = network.getLinks();
 				Point point = e.getPoint(); // Get mouse coordinates
 				
 				// Different modes (set by radio buttons) have different
@@ -66,11 +93,9 @@ class Display extends Canvas {
 					// clicking will add the link.  Otherwise, a node is added
 					if (e.getButton() == MouseEvent.BUTTON1) {
 						boolean linkFound = false;
-						for (Link link : links) {
-							if (link.inZone(point)) {
-									link.activateFromClick(true);
-									linkFound = true;
-							}
+						for (Link link : network.getLinksAt(point)) {
+							link.activateFromClick(true);
+							linkFound = true;
 						}
 						if (!linkFound)
 							network.addNode(e.getX(), e.getY());
@@ -78,57 +103,50 @@ class Display extends Canvas {
 					// If mouse is hovering over an active link, then right
 					// clicking will de-activate the link.  For nodes: deletion.
 					else {
-						Node trashNode = null;
-						boolean removeNode = false;
-						for (Node node : nodes) {
-							if (node.inZone(point)) {
-								removeNode = true;
-								trashNode = node;
-							}
-						}
-						if (removeNode)
+						Node trashNode = network.getNodeAt(point);
+						if (trashNode != null)
 							network.removeNode(trashNode);
 						else {
-							for (Link link : links) {
-								if (link.inZone(point))
-									link.activateFromClick(false);
-							}
+							for (Link link : network.getLinksAt(point))
+								link.activateFromClick(false);
 						}
 					}
 					break;
 				// In "pick start" mode, clicking the left mouse button
 				// will select that node as the beginning of the path.
 				case PICK_START:
-					for (Node node : nodes) {
-						if (node.inZone(point)) {
-							if (e.getButton() == MouseEvent.BUTTON1)
-								node.setState(NodeState.START);
-							else
-								node.setState(NodeState.NORMAL);
+					// Make sure that "old" start node is demoted
+					if (startNode != null && startNode.getState() == NodeState.START)
+						startNode.setState(NodeState.NORMAL);
+					startNode = network.getNodeAt(point);
+					if (startNode != null) {
+						if (e.getButton() == MouseEvent.BUTTON1)
+							startNode.setState(NodeState.START);
+						else {
+							startNode.setState(NodeState.NORMAL);
+							startNode = null;
 						}
-						// Make sure that "old" start node is demoted
-						else if (node.getState() == NodeState.START)
-							node.setState(NodeState.NORMAL);
 					}
 					break;
 				// In "pick finish" mode, clicking the left mouse button
 				// will select that node as the end of the path.
 				case PICK_FINISH:
-					for (Node node : nodes) {
-						if (node.inZone(point)) {
-							if (e.getButton() == MouseEvent.BUTTON3)
-								node.setState(NodeState.NORMAL);
-							else	
-								node.setState(NodeState.FINISH);
-						}
-						// Make sure that "old" finish node is demoted
-						else if (node.getState() == NodeState.FINISH) {
-							node.setState(NodeState.NORMAL);
+					// Make sure that "old" finish node is demoted
+					if (finishNode != null && finishNode.getState() == NodeState.FINISH)
+						finishNode.setState(NodeState.NORMAL);
+					finishNode = network.getNodeAt(point);
+					if (finishNode != null) {
+						if (e.getButton() == MouseEvent.BUTTON3) {
+							finishNode.setState(NodeState.NORMAL);
+							finishNode = null;
 						}
+						else
+							finishNode.setState(NodeState.FINISH);
 					}
 					break;
 				}
-				// Refresh canvas
+				// Refresh canvas (start/finish node colors may have changed)
+				invalidateLayer();
 				repaint();
 			}
 
@@ -177,17 +195,14 @@ class Display extends Canvas {
 			@Override
 			public void mouseMoved(MouseEvent e) {
 				if (mode == InputState.EDIT_NETWORK) {
-					ArrayList<Link> links = network.getLinks();
-					Point point = e.getPoint();
-					for (Link link : links) {
-						link.highlight(point);
-						// The canvas must be redrawn each time a new
-						// link is highlighted.  The "needsRepaint()"
-						// function allows those refreshes to occur
-						// only when necessary to reduce screen flicker
-						if (link.needsRepaint())
-							repaint();
-					}
+					// The canvas must be redrawn each time a new
+					// link is highlighted.  The network reports the
+					// area covered by links that changed, so that only
+					// that part of the canvas is redrawn, only when
+					// necessary, and only once per mouse movement
+					Rectangle damage = network.hover(e.getPoint());
+					if (damage != null)
+						repaint(damage.x, damage.y, damage.width, damage.height);
 				}
 			}
 		});
@@ -201,32 +216,71 @@ class Display extends Canvas {
 	// Used by the Window object to join the network to this display
 	public void update(Network n) {
 		network = n;
+		startNode = null;
+		finishNode = null;
+		invalidateLayer();
+	}
+	
+	// Show the distance from the start node next to every node (null
+	// to stop showing distances)
+	public void setDistances(ShortestPathTree tree) {
+		distances = tree;
+		if (network != null)
+			distancesVersion = network.getVersion();
+		invalidateLayer();
+	}
+	
+	// Make sure the static layer is drawn again at the next repaint
+	public void invalidateLayer() {
+		layerValid = false;
 	}
 	
 	// Whenever the canvas needs to be redrawn, then each of the network
 	// elements (nodes and links) must also be redrawn.  The code for
 	// displaying nodes and links lie in their respective classes.
 	// This uses buffered graphics (develop in the background, show in
-	// foreground when done).
+	// foreground when done).  If only part of the canvas was marked for
+	// redrawing (see mouseMoved), then only that part of the buffer is
+	// rebuilt: the static layer is copied in, and the highlighted and path
+	// links touching it are drawn on top, along with the nodes they cross.
 	@Override
 	public void paint(Graphics g)
 	{
-		// Set up hidden canvas buffer
-		bufferedgraphics.clearRect(0, 0, CanvasWidth, CanvasHeight);
-		bufferedgraphics.setColor(BackgroundColor);
-		bufferedgraphics.fillRect(0,0,CanvasWidth, CanvasHeight);
+		// Area to redraw (the whole canvas unless told otherwise)
+		Rectangle area = g.getClipBounds();
+		if (area == null)
+			area = new Rectangle(0, 0, CanvasWidth, CanvasHeight);
+		
+		// Bring static layer up to date, if needed
+		if (!layerValid || (network != null && layerVersion != network.getVersion()))
+			drawLayer();
+		
+		// Set up hidden canvas buffer, starting from the static layer
+		bufferedgraphics.setClip(area);
+		bufferedgraphics.drawImage(layerimage, 0, 0, null);
 		
-		// Draw individual node and link objects, build into buffer
+		// Draw highlighted and path links, build into buffer.  Nodes they
+		// cross are drawn again so that nodes stay on top of links.
 		if (network != null) {
-			ArrayList<Link> links = network.getLinks();
-			for (int i=0; i<links.size(); i++) {
-				Link link = links.get(i);
-				link.draw(bufferedgraphics);
+			boolean overlay = false;
+			ArrayList<Link> links = network.getLinksIn(area);
+			for (LinkState state : new LinkState[] {LinkState.HIGHLIGHTED, LinkState.PATHLEG}) {
+				for (int i=0; i<links.size(); i++) {
+					Link link = links.get(i);
+					if (link.getState() == state) {
+						link.draw(bufferedgraphics);
+						overlay = true;
+					}
+				}
 			}
-			ArrayList<Node> nodes = network.getNodes();
-			for (int i=0; i<nodes.size(); i++) {
-				Node node = nodes.get(i);
-				node.draw(bufferedgraphics);
+			if (overlay) {
+				Rectangle nodeArea = new Rectangle(area);
+				nodeArea.grow(NodeMargin, NodeMargin);
+				ArrayList<Node> nodes = network.getNodesIn(nodeArea);
+				for (int i=0; i<nodes.size(); i++) {
+					Node node = nodes.get(i);
+					node.draw(bufferedgraphics);
+				}
 			}
 		}
 		
@@ -234,6 +288,37 @@ class Display extends Canvas {
 		g.drawImage(bufferedimage,0,0,this);
 	}
 	
+	// Draw the static layer: background, every active link (path links are
+	// drawn as plain active links here), then every node on top
+	private void drawLayer() {
+		layergraphics.setColor(BackgroundColor);
+		layergraphics.fillRect(0, 0, CanvasWidth, CanvasHeight);
+		layerValid = true;
+		if (network == null)
+			return;
+		for (Link link : network.getLinks()) {
+			if (link.isActive())
+				link.drawActive(layergraphics);
+		}
+		for (Node node : network.getNodes())
+			node.draw(layergraphics);
+		layerVersion = network.getVersion();
+		
+		// Label nodes with their distance from the start node
+		if (distances != null && distancesVersion != layerVersion)
+			distances = null;
+		if (distances != null) {
+			Graph graph = distances.getGraph();
+			layergraphics.setColor(DistanceColor);
+			for (Node node : network.getNodes()) {
+				int id = graph.indexOf(node);
+				if (id >= 0 && distances.isReached(id))
+					layergraphics.drawString(String.format("%.0f", distances.getDistance(id)),
+							node.getX() + NodeLabelOffset, node.getY() - NodeLabelOffset);
+			}
+		}
+	}
+	
 	// Automatically called when needed, in this case, whenever the mouse moves
 	public void update(Graphics g) {
 		paint(g);
@@ -0,0 +1,127 @@
+package shortestPath;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Shortest distances between every pair of nodes of a Graph, kept in one
+// flat array: the distance from node i to node j is at i*numNodes + j
+// (infinity if they are not connected).  Small graphs are worked out with
+// the Floyd-Warshall algorithm, which is simple and fast for a few hundred
+// nodes.  Bigger graphs run Dijkstra's search from every node, with the
+// sources spread over a fork/join pool.  Either way the matrix takes
+// numNodes^2 doubles, so this is only meant for modest networks.
+public class DistanceMatrix {
+
+	// Graphs up to this many nodes use Floyd-Warshall
+	private static final int FLOYD_WARSHALL_LIMIT = 200;
+
+	// Number of sources below which a batch of sources is no longer split up
+	private static final int SOURCE_SPLIT = 8;
+
+	private final Graph graph;
+	private final int numNodes;
+	private final double[] distances;
+
+	// Work out all distances of a graph (picks the method by size)
+	public DistanceMatrix(Graph g) {
+		this(g, g.getNumNodes() <= FLOYD_WARSHALL_LIMIT);
+	}
+
+	// Work out all distances of a graph, with Floyd-Warshall or with
+	// repeated Dijkstra searches in parallel
+	public DistanceMatrix(Graph g, boolean floydWarshall) {
+		graph = g;
+		numNodes = g.getNumNodes();
+		long size = (long) numNodes * numNodes;
+		if (size > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Graph of " + numNodes + " nodes is too big for a distance matrix");
+		distances = new double[(int) size];
+		if (floydWarshall)
+			floydWarshall();
+		else
+			ForkJoinPool.commonPool().invoke(new Sources(0, numNodes));
+	}
+
+	// "GET" METHODS
+
+	// Provide the graph
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Provide the number of nodes (rows and columns)
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	// Shortest distance from node "source" to node "target"
+	public double get(int source, int target) {
+		return distances[source*numNodes + target];
+	}
+
+	// Provide the whole matrix, row by row (the array belongs to the
+	// matrix; do not change it)
+	public double[] getDistances() {
+		return distances;
+	}
+
+	// Floyd-Warshall: start from the direct links, then allow each node in
+	// turn to be a stop along the way, keeping any route it shortens
+	private void floydWarshall() {
+		int n = numNodes;
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		for (int i=0; i<n; i++) {
+			distances[i*n + i] = 0;
+			for (int slot = graph.offsets[i]; slot < graph.offsets[i+1]; slot++) {
+				int j = graph.targets[slot];
+				if (graph.weights[slot] < distances[i*n + j])
+					distances[i*n + j] = graph.weights[slot];
+			}
+		}
+		for (int k=0; k<n; k++) {
+			int rowK = k*n;
+			for (int i=0; i<n; i++) {
+				int rowI = i*n;
+				double viaK = distances[rowI + k];
+				if (viaK == Double.POSITIVE_INFINITY)
+					continue;
+				for (int j=0; j<n; j++) {
+					double d = viaK + distances[rowK + j];
+					if (d < distances[rowI + j])
+						distances[rowI + j] = d;
+				}
+			}
+		}
+	}
+
+	// A range of source nodes (from "begin" up to, not including, "end"),
+	// split in half until small enough for one thread, which then runs a
+	// full Dijkstra search from each and copies the distances into its rows
+	private class Sources extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int begin;
+		private final int end;
+
+		Sources(int b, int e) {
+			begin = b;
+			end = e;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > SOURCE_SPLIT) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Sources(begin, middle), new Sources(middle, end));
+				return;
+			}
+			Dijkstra dijkstra = new Dijkstra(graph);
+			for (int source=begin; source<end; source++) {
+				double[] row = dijkstra.searchAll(source).getDistances();
+				System.arraycopy(row, 0, distances, source*numNodes, numNodes);
+			}
+		}
+	}
+}
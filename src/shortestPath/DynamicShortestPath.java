@@ -0,0 +1,410 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+// Keeps the shortest path between two nodes of a network up to date while
+// the network is being edited, using "Lifelong Planning A*" (LPA*).  Instead
+// of searching from scratch after every edit, it remembers the distance of
+// every node it has looked at:
+//    g(n)   - distance from the start as of the last search
+//    rhs(n) - distance from the start according to n's neighbours right now
+// A node whose two values disagree is "inconsistent" and waits in a queue.
+// An edit only makes the nodes at the ends of the changed links
+// inconsistent; fixing them spreads only as far as distances really
+// changed, and the search stops as soon as the finish node is settled.
+// Nodes are queued by (smaller of g and rhs) + (straight-line distance to
+// the finish), as in A* (see AStar.java), unless some link weighs less
+// than its straight-line length, in which case the straight-line part is
+// left out.  LPA* needs every link to weigh more than 0 (two nodes joined
+// by a weightless link can keep each other's old distance forever once
+// the rest of their path is gone), so while any active link weighs 0 each
+// search starts over from scratch, which is then plain A*.
+//
+// The object listens to the network (see NetworkListener.java); call
+// getPath for the current shortest path, and dispose when done with it.
+// It can also start from a finished tree of shortest paths, in which
+// case the first search is already done.
+public class DynamicShortestPath implements NetworkListener {
+
+	private final Network network;
+	private final Node start;
+	private final Node finish;
+
+	// Distances (nodes missing from the maps count as infinitely far)
+	private final HashMap<Node, Double> g = new HashMap<Node, Double>();
+	private final HashMap<Node, Double> rhs = new HashMap<Node, Double>();
+
+	// Link each node's rhs came from (the path is walked back along these)
+	private final HashMap<Node, Link> via = new HashMap<Node, Link>();
+
+	// Active links that weigh 0 (see above)
+	private final HashSet<Link> weightless = new HashSet<Link>();
+
+	// Inconsistent nodes, in key order, and where each one is in the queue
+	private final TreeSet<Entry> queue = new TreeSet<Entry>();
+	private final HashMap<Node, Entry> queued = new HashMap<Node, Entry>();
+
+	// Is the straight-line distance a safe estimate (see AStar.java)?
+	private boolean geometric;
+
+	// Gives every queue entry a unique number (tie breaker for equal keys)
+	private long entryCount = 0;
+
+	// Has an edit happened since the last search?  (Searching is put off
+	// until the path is asked for, so a burst of edits costs one search.)
+	private boolean stale = true;
+
+	// False once the start or finish node is removed
+	private boolean valid = true;
+
+	// Number of nodes expanded by the searches since the last getPath
+	private int nodesExpanded = 0;
+
+	// Track the shortest path between two nodes of a network
+	public DynamicShortestPath(Network n, Node startNode, Node finishNode) {
+		network = n;
+		start = startNode;
+		finish = finishNode;
+		reset();
+		network.addListener(this);
+	}
+
+	// Track the shortest path from the source of a finished tree of
+	// shortest paths (see ShortestPathTree.java) to "finishNode", without
+	// searching: every node the tree reaches starts out with its final
+	// distance.  Only the tree and its graph are read, so this can be done
+	// on a worker thread (see SearchTask.java); call listen, on the event
+	// dispatch thread, to start following edits.
+	public DynamicShortestPath(Network n, ShortestPathTree tree, Node finishNode) {
+		network = n;
+		Graph graph = tree.getGraph();
+		start = graph.getNode(tree.getSource());
+		finish = finishNode;
+		geometric = graph.isGeometric();
+		for (int v=0; v<graph.getNumNodes(); v++) {
+			if (tree.isReached(v)) {
+				Node node = graph.getNode(v);
+				g.put(node, tree.getDistance(v));
+				rhs.put(node, tree.getDistance(v));
+				Link parentLink = tree.getParentLink(v);
+				if (parentLink != null)
+					via.put(node, parentLink);
+			}
+			for (int slot = graph.offsets[v]; slot < graph.offsets[v+1]; slot++) {
+				if (graph.weights[slot] == 0)
+					weightless.add(graph.getLink(slot));
+			}
+		}
+		stale = false;
+	}
+
+	// Start hearing about the network's edits (for a tracker made from a
+	// tree)
+	public void listen() {
+		network.addListener(this);
+	}
+
+	// Stop tracking (the network stops telling this object about edits)
+	public void dispose() {
+		network.removeListener(this);
+	}
+
+	// "GET" METHODS
+
+	// Provide the node the path begins at
+	public Node getStart() {
+		return start;
+	}
+
+	// Provide the node the path ends at
+	public Node getFinish() {
+		return finish;
+	}
+
+	// Are the start and finish nodes still in the network?
+	public boolean isValid() {
+		return valid;
+	}
+
+	// Number of nodes expanded bringing the path up to date the last time
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Current shortest distance from start to finish (infinity if none)
+	public double getDistance() {
+		update();
+		return getG(finish);
+	}
+
+	// Current shortest path from start to finish, or null if there is none
+	public ArrayList<Link> getPath() {
+		update();
+		if (!valid || getG(finish) == Double.POSITIVE_INFINITY)
+			return null;
+
+		// Walk back from the finish, each time along the link the node's
+		// distance came from
+		ArrayList<Link> path = new ArrayList<Link>();
+		Node node = finish;
+		int steps = 0;
+		while (node != start) {
+			Link link = via.get(node);
+			if (link == null || ++steps > network.getNumNodes())
+				return null;
+			path.add(link);
+			node = link.getOther(node);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	// NETWORK EDITS (see NetworkListener.java)
+
+	@Override
+	public void nodeAdded(Node node) {
+		// A new node has no active links yet, so no distance changes
+	}
+
+	@Override
+	public void nodeRemoved(Node node) {
+		if (node == start || node == finish) {
+			valid = false;
+			return;
+		}
+		g.remove(node);
+		rhs.remove(node);
+		via.remove(node);
+		dequeue(node);
+		for (Link link : node.getLinks()) {
+			weightless.remove(link);
+			if (link.isActive())
+				updateNode(link.getOther(node));
+		}
+		stale = true;
+	}
+
+	@Override
+	public void nodeMoved(Node node) {
+		// Moving an end node changes the straight-line distances that
+		// order the queue, so start over; otherwise only the lengths of
+		// the node's links changed
+		if (node == start || node == finish || !checkGeometric(node)) {
+			reset();
+			return;
+		}
+		updateNode(node);
+		for (Link link : node.getLinks()) {
+			checkWeight(link);
+			if (link.isActive())
+				updateNode(link.getOther(node));
+		}
+		stale = true;
+	}
+
+	@Override
+	public void linkChanged(Link link) {
+		if (geometric && link.isActive() && (link.getWeight() < link.getLength())) {
+			reset();
+			return;
+		}
+		checkWeight(link);
+		updateNode(link.getBegin());
+		updateNode(link.getEnd());
+		stale = true;
+	}
+
+	// LPA* ITSELF
+
+	// Forget everything and start over: only the start node is known
+	private void reset() {
+		geometric = true;
+		weightless.clear();
+		for (Link link : network.getLinks()) {
+			if (link.isActive() && (link.getWeight() < link.getLength()))
+				geometric = false;
+			checkWeight(link);
+		}
+		g.clear();
+		rhs.clear();
+		via.clear();
+		queue.clear();
+		queued.clear();
+		rhs.put(start, 0.0);
+		enqueue(start);
+		stale = true;
+	}
+
+	// Bring distances up to date if there were edits since the last search
+	private void update() {
+		nodesExpanded = 0;
+		if (!stale || !valid)
+			return;
+		if (!weightless.isEmpty())
+			reset();
+		while (!queue.isEmpty()) {
+			Entry top = queue.first();
+			double finishG = getG(finish);
+			double finishRhs = getRhs(finish);
+			if ((compare(top.k1, top.k2, key1(finish), key2(finish)) >= 0) && (finishG == finishRhs))
+				break;
+			queue.pollFirst();
+			queued.remove(top.node);
+			nodesExpanded++;
+			Node node = top.node;
+			if (getG(node) > getRhs(node)) {
+				// Distance went down: settle it, neighbours may improve
+				g.put(node, getRhs(node));
+				updateNeighbours(node);
+			}
+			else {
+				// Distance went up: forget it, neighbours must recheck
+				g.remove(node);
+				updateNode(node);
+				updateNeighbours(node);
+			}
+		}
+		stale = false;
+	}
+
+	// Recheck every neighbour of a node
+	private void updateNeighbours(Node node) {
+		for (Link link : node.getLinks()) {
+			Node other = link.getOther(node);
+			if (usable(link, other))
+				updateNode(other);
+		}
+	}
+
+	// Work out a node's rhs from its neighbours, and queue it if it no
+	// longer agrees with its g
+	private void updateNode(Node node) {
+		if (node.getIndex() < 0)
+			return;
+		if (node != start) {
+			double best = Double.POSITIVE_INFINITY;
+			Link bestLink = null;
+			for (Link link : node.getLinks()) {
+				Node other = link.getOther(node);
+				if (usable(link, other) && (getG(other) + link.getWeight() < best)) {
+					best = getG(other) + link.getWeight();
+					bestLink = link;
+				}
+			}
+			// Keep the old link on a tie, so weightless links can't make
+			// two nodes each other's way back
+			Link old = via.get(node);
+			if (old != null && usable(old, old.getOther(node)) && (getG(old.getOther(node)) + old.getWeight() == best))
+				bestLink = old;
+			if (best == Double.POSITIVE_INFINITY) {
+				rhs.remove(node);
+				via.remove(node);
+			}
+			else {
+				rhs.put(node, best);
+				via.put(node, bestLink);
+			}
+		}
+		dequeue(node);
+		if (getG(node) != getRhs(node))
+			enqueue(node);
+	}
+
+	// Are the straight-line distances still safe estimates after a node
+	// moved?  (Moving can make a link longer than its weight.)
+	private boolean checkGeometric(Node node) {
+		if (!geometric)
+			return true;
+		for (Link link : node.getLinks()) {
+			if (link.isActive() && (link.getWeight() < link.getLength()))
+				return false;
+		}
+		return true;
+	}
+
+	// Keep the set of weightless active links up to date for one link
+	private void checkWeight(Link link) {
+		if (link.isActive() && (link.getWeight() == 0))
+			weightless.add(link);
+		else
+			weightless.remove(link);
+	}
+
+	// Can a link be travelled to reach "other"?  (Links of removed nodes
+	// may still be listed by their neighbours, so removed nodes are skipped)
+	private static boolean usable(Link link, Node other) {
+		return link.isActive() && (other != null) && (other.getIndex() >= 0);
+	}
+
+	private double getG(Node node) {
+		Double d = g.get(node);
+		return (d == null) ? Double.POSITIVE_INFINITY : d;
+	}
+
+	private double getRhs(Node node) {
+		Double d = rhs.get(node);
+		return (d == null) ? Double.POSITIVE_INFINITY : d;
+	}
+
+	// Queue key: (smaller of g and rhs) + straight-line distance to finish,
+	// then (smaller of g and rhs) to break ties
+	private double key1(Node node) {
+		double d = Math.min(getG(node), getRhs(node));
+		if (!geometric)
+			return d;
+		double dx = node.getX() - finish.getX();
+		double dy = node.getY() - finish.getY();
+		return d + Math.sqrt(dx*dx + dy*dy);
+	}
+
+	private double key2(Node node) {
+		return Math.min(getG(node), getRhs(node));
+	}
+
+	private void enqueue(Node node) {
+		Entry entry = new Entry(node, key1(node), key2(node), entryCount++);
+		queue.add(entry);
+		queued.put(node, entry);
+	}
+
+	private void dequeue(Node node) {
+		Entry entry = queued.remove(node);
+		if (entry != null)
+			queue.remove(entry);
+	}
+
+	private static int compare(double a1, double a2, double b1, double b2) {
+		if (a1 != b1)
+			return (a1 < b1) ? -1 : 1;
+		if (a2 != b2)
+			return (a2 < b2) ? -1 : 1;
+		return 0;
+	}
+
+	// A node waiting in the queue, with the key it was queued under
+	private static class Entry implements Comparable<Entry> {
+		final Node node;
+		final double k1;
+		final double k2;
+		final long number;
+
+		Entry(Node n, double key1, double key2, long count) {
+			node = n;
+			k1 = key1;
+			k2 = key2;
+			number = count;
+		}
+
+		@Override
+		public int compareTo(Entry other) {
+			int c = compare(k1, k2, other.k1, other.k2);
+			if (c != 0)
+				return c;
+			return Long.compare(number, other.number);
+		}
+	}
+}
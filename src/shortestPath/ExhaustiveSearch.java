@@ -0,0 +1,238 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// The program's original search, run over a Graph: every path from the
+// source that does not pass through a node twice is followed until it
+// reaches the target, and the shortest one found wins.  This can take
+// time exponential in the size of the network, so it is only useful for
+// small networks and for checking the other searches.
+//
+// The paths are walked depth first on a stack kept in plain arrays (the
+// node at each depth of the current path, and the next of its slots to
+// try), not by a function calling itself, so a path can be as long as
+// the network is big, without any depth limit and without running out
+// of thread stack.  Two checks keep the walk from being hopeless:
+//    - the target is first looked for by a plain depth-first search (each
+//      node visited once), so a target that can't be reached is reported
+//      right away instead of after trying every path
+//    - a path already as long as the best one found is not followed any
+//      further, since links never have negative weights
+// Even so, a big network can take longer than anyone will wait; with a
+// budget (see SearchBudget.java) the walk stops early and keeps the best
+// path found by then.
+public class ExhaustiveSearch implements PathSearch {
+
+	private final Graph graph;
+
+	// The current path: pathNodes[0] is the source and pathNodes[d] the
+	// node at depth d, reached through slot pathSlots[d] after travelling
+	// pathLengths[d].  nextSlots[d] is the next slot of pathNodes[d] to try.
+	private final int[] pathNodes;
+	private final int[] pathSlots;
+	private final int[] nextSlots;
+	private final double[] pathLengths;
+
+	// onPath[v] == searchNumber if node v is on the current path (or, for
+	// the reachability check, has been visited)
+	private final int[] onPath;
+	private int searchNumber = 0;
+
+	// Best path found by the last search (slots from source to target)
+	private final int[] bestSlots;
+	private int bestSize = -1;
+	private double bestLength = Double.POSITIVE_INFINITY;
+
+	// Number of nodes put on the stack by the last search (a long, since
+	// a search with no budget can run for a very long time)
+	private long nodesExpanded = 0;
+
+	// Number of links tried, and the deepest the stack got, in the last
+	// search
+	private long edgesRelaxed = 0;
+	private int peakFrontier = 0;
+
+	// Limits on the searches (null if none), and whether the last search
+	// ran out of them before every path was tried
+	private SearchBudget budget = null;
+	private boolean stopped = false;
+
+	// Search object is tied to one graph
+	public ExhaustiveSearch(Graph g) {
+		graph = g;
+		int n = g.numNodes;
+		pathNodes = new int[n];
+		pathSlots = new int[n];
+		nextSlots = new int[n];
+		pathLengths = new double[n];
+		onPath = new int[n];
+		bestSlots = new int[n];
+	}
+
+	// Provide the graph being searched
+	@Override
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Find the shortest distance from node "source" to node "target" by
+	// trying every path.  Returns infinity if there is no path.
+	@Override
+	public double search(int source, int target) {
+		bestSize = -1;
+		bestLength = Double.POSITIVE_INFINITY;
+		nodesExpanded = 0;
+		edgesRelaxed = 0;
+		peakFrontier = 0;
+		stopped = false;
+		if (budget != null)
+			budget.start();
+		if (!reachable(source, target))
+			return bestLength;
+		if (source == target) {
+			bestSize = 0;
+			bestLength = 0;
+			return bestLength;
+		}
+
+		int stamp = nextSearchNumber();
+		int depth = 0;
+		pathNodes[0] = source;
+		pathLengths[0] = 0;
+		nextSlots[0] = graph.offsets[source];
+		onPath[source] = stamp;
+		nodesExpanded++;
+		peakFrontier = 1;
+		while (depth >= 0) {
+			int node = pathNodes[depth];
+			int slot = nextSlots[depth];
+
+			// Every branch from this node has been tried: step back
+			if (slot == graph.offsets[node+1]) {
+				onPath[node] = 0;
+				depth--;
+				continue;
+			}
+			nextSlots[depth]++;
+			edgesRelaxed++;
+
+			// Skip nodes already on the path, and paths that can't beat
+			// the best one found
+			int other = graph.targets[slot];
+			double length = pathLengths[depth] + graph.weights[slot];
+			if (onPath[other] == stamp || length >= bestLength)
+				continue;
+
+			// A path that reaches the target is kept if it is the best
+			// so far; it isn't followed any further
+			if (other == target) {
+				for (int d=1; d<=depth; d++)
+					bestSlots[d-1] = pathSlots[d];
+				bestSlots[depth] = slot;
+				bestSize = depth + 1;
+				bestLength = length;
+				continue;
+			}
+
+			// Otherwise go one step deeper
+			depth++;
+			pathNodes[depth] = other;
+			pathSlots[depth] = slot;
+			pathLengths[depth] = length;
+			nextSlots[depth] = graph.offsets[other];
+			onPath[other] = stamp;
+			nodesExpanded++;
+			peakFrontier = Math.max(peakFrontier, depth + 1);
+			if (budget != null && budget.isSpent(nodesExpanded)) {
+				stopped = true;
+				break;
+			}
+		}
+		return bestLength;
+	}
+
+	// Is there any path from node "source" to node "target"?  (A plain
+	// depth-first search that visits each node once, on the same stack.)
+	public boolean reachable(int source, int target) {
+		int stamp = nextSearchNumber();
+		int size = 0;
+		pathNodes[size++] = source;
+		onPath[source] = stamp;
+		while (size > 0) {
+			int node = pathNodes[--size];
+			if (node == target)
+				return true;
+			for (int slot = graph.offsets[node]; slot < graph.offsets[node+1]; slot++) {
+				int other = graph.targets[slot];
+				if (onPath[other] != stamp) {
+					onPath[other] = stamp;
+					pathNodes[size++] = other;
+				}
+			}
+		}
+		return false;
+	}
+
+	// Links of the path found by the last search, from source to target,
+	// or null if there is no path
+	@Override
+	public ArrayList<Link> getPath() {
+		if (bestSize < 0)
+			return null;
+		ArrayList<Link> path = new ArrayList<Link>(bestSize);
+		for (int i=0; i<bestSize; i++)
+			path.add(graph.getLink(bestSlots[i]));
+		return path;
+	}
+
+	// Number of nodes put on the stack by the last search
+	@Override
+	public int getNodesExpanded() {
+		return (int) Math.min(nodesExpanded, Integer.MAX_VALUE);
+	}
+
+	// Number of links tried by the last search
+	@Override
+	public long getEdgesRelaxed() {
+		return edgesRelaxed;
+	}
+
+	// No heap is used
+	@Override
+	public long getHeapOperations() {
+		return 0;
+	}
+
+	// Largest number of nodes on the stack (the longest path tried) in the
+	// last search
+	@Override
+	public int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	// Limit the searches that follow to a budget (null for no limit)
+	@Override
+	public void setBudget(SearchBudget b) {
+		budget = b;
+	}
+
+	// Did the last search stop before every path was tried?  If so, the
+	// path kept is the best found by then.
+	@Override
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	// Bump the search number so that every node counts as untouched.  On
+	// the (very rare) wrap-around of the counter, the stamps are actually
+	// cleared.
+	private int nextSearchNumber() {
+		searchNumber++;
+		if (searchNumber == Integer.MAX_VALUE) {
+			Arrays.fill(onPath, 0);
+			searchNumber = 1;
+		}
+		return searchNumber;
+	}
+}
@@ -0,0 +1,325 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+// A frozen "compressed sparse row" (CSR) copy of the active part of a network.
+// Nodes are numbered 0 to numNodes-1 and the links leaving node i are stored
+// in slots offsets[i] to offsets[i+1]-1 of the targets/weights arrays.  Since
+// links are two-way, every active link fills two slots (one for each end).
+// Searches walk these plain arrays instead of the Node and Link objects, so
+// they do not have to filter out inactive links or create any lists.  A graph
+// never changes once built; the network builds a new one after it is edited
+// (see Network.getGraph).
+//
+// A graph can also be read straight from a file (see NetworkFile.java)
+// without any network behind it.  Its Node and Link objects are then only
+// made when a search result needs them (see getNode and getLink), so
+// opening a large graph only costs copying its arrays.
+public class Graph {
+
+	// Node numbering: nodes[i] is node number i (filled in on first use
+	// for a graph read from a file, see getNode)
+	private final Node[] nodes;
+	final int numNodes;
+
+	// Node positions (for searches that use geometry)
+	final int[] xs;
+	final int[] ys;
+
+	// Adjacency in CSR layout
+	final int[] offsets;	// numNodes+1 entries
+	final int[] targets;	// node at the other end of each slot
+	final double[] weights;	// weight of the link in each slot (see Link.getWeight)
+	private final Link[] links;	// original link of each slot (to rebuild paths, see getLink)
+
+	// Is every link's weight at least the straight-line distance between
+	// its ends?  Only then can straight-line distances guide A* (see AStar.java).
+	final boolean geometric;
+
+	// Was the graph read from a file?  (Its nodes and links are then made
+	// on first use, under a lock, since several threads may search it.)
+	private final boolean lazy;
+
+	// Build graph from the network's node list, keeping only active links.
+	// Nodes must already be numbered by their position in the list.
+	Graph(ArrayList<Node> nodeList, ArrayList<Link> linkList) {
+		numNodes = nodeList.size();
+		nodes = nodeList.toArray(new Node[numNodes]);
+		xs = new int[numNodes];
+		ys = new int[numNodes];
+		for (int i=0; i<numNodes; i++) {
+			xs[i] = nodes[i].getX();
+			ys[i] = nodes[i].getY();
+		}
+
+		// Count the active links at each node...
+		offsets = new int[numNodes+1];
+		for (Link link : linkList) {
+			if (link.isActive()) {
+				offsets[link.getBegin().getIndex()+1]++;
+				offsets[link.getEnd().getIndex()+1]++;
+			}
+		}
+		// ...turn the counts into starting slots...
+		for (int i=0; i<numNodes; i++)
+			offsets[i+1] += offsets[i];
+
+		// ...and fill the slots
+		int numSlots = offsets[numNodes];
+		targets = new int[numSlots];
+		weights = new double[numSlots];
+		links = new Link[numSlots];
+		int[] next = new int[numNodes];
+		System.arraycopy(offsets, 0, next, 0, numNodes);
+		boolean straight = true;
+		for (Link link : linkList) {
+			if (link.isActive()) {
+				int begin = link.getBegin().getIndex();
+				int end = link.getEnd().getIndex();
+				double weight = link.getWeight();
+				if (weight < link.getLength())
+					straight = false;
+				int slot = next[begin]++;
+				targets[slot] = end;
+				weights[slot] = weight;
+				links[slot] = link;
+				slot = next[end]++;
+				targets[slot] = begin;
+				weights[slot] = weight;
+				links[slot] = link;
+			}
+		}
+		geometric = straight;
+		lazy = false;
+	}
+
+	// Build graph straight from its arrays (see NetworkFile.java and
+	// fromLinks).  Every
+	// link must fill one slot at each end, with the same weight.
+	Graph(int[] xArray, int[] yArray, int[] offsetArray, int[] targetArray, double[] weightArray) {
+		numNodes = xArray.length;
+		nodes = new Node[numNodes];
+		xs = xArray;
+		ys = yArray;
+		offsets = offsetArray;
+		targets = targetArray;
+		weights = weightArray;
+		links = new Link[targets.length];
+		boolean straight = true;
+		for (int node=0; node<numNodes && straight; node++) {
+			for (int slot = offsets[node]; slot < offsets[node+1]; slot++) {
+				double dx = xs[targets[slot]] - xs[node];
+				double dy = ys[targets[slot]] - ys[node];
+				double w = weights[slot];
+				if ((w*w < dx*dx + dy*dy) && (w < Math.sqrt(dx*dx + dy*dy))) {
+					straight = false;
+					break;
+				}
+			}
+		}
+		geometric = straight;
+		lazy = true;
+	}
+
+	// Build graph from a list of links between numbered nodes (link i joins
+	// nodes from[i] and to[i] with weight weights[i]; see NetworkImporter.java
+	// and NetworkGenerator.java).  Links from a node to itself are dropped,
+	// and of links joining the same two nodes only the lightest is kept.
+	static Graph fromLinks(int[] xArray, int[] yArray, int[] from, int[] to, double[] linkWeights, int numLinks) {
+		int n = xArray.length;
+
+		// Count the links at each node (both ends)...
+		int[] offsetArray = new int[n+1];
+		for (int i=0; i<numLinks; i++) {
+			if (from[i] != to[i]) {
+				offsetArray[from[i]+1]++;
+				offsetArray[to[i]+1]++;
+			}
+		}
+		for (int i=0; i<n; i++)
+			offsetArray[i+1] += offsetArray[i];
+
+		// ...fill the slots...
+		int[] targetArray = new int[offsetArray[n]];
+		double[] weightArray = new double[offsetArray[n]];
+		int[] next = Arrays.copyOf(offsetArray, n);
+		for (int i=0; i<numLinks; i++) {
+			int a = from[i];
+			int b = to[i];
+			if (a == b)
+				continue;
+			int slot = next[a]++;
+			targetArray[slot] = b;
+			weightArray[slot] = linkWeights[i];
+			slot = next[b]++;
+			targetArray[slot] = a;
+			weightArray[slot] = linkWeights[i];
+		}
+
+		// ...and drop repeated links, keeping the lightest of each (the
+		// slots of each node are sorted by the node at the other end, so
+		// repeats sit side by side)
+		int kept = 0;
+		int[] keptOffsets = new int[n+1];
+		for (int node=0; node<n; node++) {
+			int begin = offsetArray[node];
+			int end = offsetArray[node+1];
+			sortSlots(targetArray, weightArray, begin, end);
+			keptOffsets[node] = kept;
+			for (int slot=begin; slot<end; slot++) {
+				if (kept > keptOffsets[node] && targetArray[kept-1] == targetArray[slot]) {
+					weightArray[kept-1] = Math.min(weightArray[kept-1], weightArray[slot]);
+					continue;
+				}
+				targetArray[kept] = targetArray[slot];
+				weightArray[kept] = weightArray[slot];
+				kept++;
+			}
+		}
+		keptOffsets[n] = kept;
+		return new Graph(xArray, yArray, keptOffsets, Arrays.copyOf(targetArray, kept), Arrays.copyOf(weightArray, kept));
+	}
+
+	// Sort the slots begin to end-1 by the node at their other end
+	private static void sortSlots(int[] targets, double[] slotWeights, int begin, int end) {
+		int size = end - begin;
+		if (size < 16) {
+			// Few slots (the usual case): insertion sort
+			for (int i=begin+1; i<end; i++) {
+				int t = targets[i];
+				double w = slotWeights[i];
+				int j = i - 1;
+				while (j >= begin && targets[j] > t) {
+					targets[j+1] = targets[j];
+					slotWeights[j+1] = slotWeights[j];
+					j--;
+				}
+				targets[j+1] = t;
+				slotWeights[j+1] = w;
+			}
+			return;
+		}
+		// Many slots: sort (target, position) pairs packed into longs
+		long[] keys = new long[size];
+		for (int i=0; i<size; i++)
+			keys[i] = (((long) targets[begin+i]) << 32) | i;
+		Arrays.sort(keys);
+		double[] oldWeights = Arrays.copyOfRange(slotWeights, begin, end);
+		for (int i=0; i<size; i++) {
+			targets[begin+i] = (int) (keys[i] >>> 32);
+			slotWeights[begin+i] = oldWeights[(int) keys[i]];
+		}
+	}
+
+	// "GET" METHODS
+
+	// Provide number of nodes
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	// Provide number of active links
+	public int getNumLinks() {
+		return targets.length/2;
+	}
+
+	// Can straight-line distances be used as lower bounds on path weights?
+	public boolean isGeometric() {
+		return geometric;
+	}
+
+	// Provide node with a given number
+	public Node getNode(int id) {
+		if (!lazy)
+			return nodes[id];
+		synchronized (this) {
+			return makeNode(id);
+		}
+	}
+
+	// Provide the link in a slot
+	Link getLink(int slot) {
+		if (!lazy)
+			return links[slot];
+		synchronized (this) {
+			return makeLink(slot);
+		}
+	}
+
+	// Node of a graph read from a file, made on first use
+	private Node makeNode(int id) {
+		Node node = nodes[id];
+		if (node == null) {
+			node = new Node(xs[id], ys[id]);
+			node.setIndex(id);
+			nodes[id] = node;
+		}
+		return node;
+	}
+
+	// Link of a graph read from a file, made on first use and filed under
+	// the slot at its other end too
+	private Link makeLink(int slot) {
+		Link link = links[slot];
+		if (link == null) {
+			int owner = getSlotOwner(slot);
+			int other = targets[slot];
+			link = new Link(makeNode(owner), makeNode(other));
+			if (weights[slot] != link.getLength())
+				link.setWeight(weights[slot]);
+			link.activate();
+			links[slot] = link;
+			for (int back = offsets[other]; back < offsets[other+1]; back++) {
+				if (targets[back] == owner)
+					links[back] = link;
+			}
+		}
+		return link;
+	}
+
+	// Provide the number of a node, or -1 if the node is not in this graph
+	// (for example, it was added to the network after the graph was built)
+	public int indexOf(Node node) {
+		int id = node.getIndex();
+		if ((id < 0) || (id >= numNodes))
+			return -1;
+		if (lazy) {
+			synchronized (this) {
+				return (nodes[id] == node) ? id : -1;
+			}
+		}
+		return (nodes[id] == node) ? id : -1;
+	}
+
+	// Turn a search result into a list of links, in order from "source"
+	// to "target."  previousSlot[i] is the slot of the link used to reach
+	// node i, so the path is found by walking back from "target."
+	ArrayList<Link> toLinks(int[] previousSlot, int source, int target) {
+		ArrayList<Link> path = new ArrayList<Link>();
+		int node = target;
+		while (node != source) {
+			int slot = previousSlot[node];
+			path.add(getLink(slot));
+			node = getSlotOwner(slot);
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+	// Provide the node a slot belongs to (the "from" end of the slot), found
+	// by a binary search of the offsets so no extra array has to be stored
+	int getSlotOwner(int slot) {
+		int low = 0;
+		int high = numNodes - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (offsets[middle] <= slot)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+		return low;
+	}
+}
@@ -0,0 +1,179 @@
+package shortestPath;
+
+import java.util.Arrays;
+
+// A binary min-heap of integer ids (0 to capacity-1) ordered by a double key.
+// Unlike java.util.PriorityQueue, the position of every id is tracked, so the
+// key of an id already in the heap can be lowered in place ("decrease key")
+// instead of adding a duplicate entry.  All storage is allocated up front, so
+// using the heap does not create any objects.
+public class IndexedHeap {
+
+	// heap[i] = id stored at heap slot i
+	private int[] heap;
+
+	// position[id] = heap slot of the id, or -1 if the id is not in the heap
+	private int[] position;
+
+	// keys[id] = priority of the id (only meaningful while it is in the heap)
+	private double[] keys;
+
+	// Number of ids currently in the heap
+	private int size;
+
+	// Counters kept for the search statistics (see resetCounters):
+	// pushes and key decreases that changed the heap, plus polls, and
+	// the largest size the heap reached
+	private long operations;
+	private int peakSize;
+
+	// Heap must know the largest id it will hold
+	public IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		position = new int[capacity];
+		keys = new double[capacity];
+		Arrays.fill(position, -1);
+		size = 0;
+	}
+
+	// "GET" METHODS
+
+	// Number of ids the heap was built for
+	public int capacity() {
+		return position.length;
+	}
+
+	// Number of ids in the heap
+	public int size() {
+		return size;
+	}
+
+	// Is the heap empty?
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// Is the given id in the heap?
+	public boolean contains(int id) {
+		return position[id] >= 0;
+	}
+
+	// Priority of an id in the heap
+	public double getKey(int id) {
+		return keys[id];
+	}
+
+	// Smallest key in the heap (heap must not be empty)
+	public double peekKey() {
+		return keys[heap[0]];
+	}
+
+	// Id with the smallest key (heap must not be empty)
+	public int peek() {
+		return heap[0];
+	}
+
+	// Number of pushes, key decreases and polls since the last reset
+	public long getOperations() {
+		return operations;
+	}
+
+	// Largest number of ids held at once since the last reset
+	public int getPeakSize() {
+		return peakSize;
+	}
+
+	// "SET" METHODS
+
+	// Zero the operation count and peak size
+	public void resetCounters() {
+		operations = 0;
+		peakSize = size;
+	}
+
+	// Add an id, or lower its key if it is already in the heap.  Returns
+	// false if the id was already in the heap with a key at least as small.
+	public boolean push(int id, double key) {
+		int slot = position[id];
+		if (slot < 0) {
+			keys[id] = key;
+			heap[size] = id;
+			position[id] = size;
+			siftUp(size++);
+			operations++;
+			if (size > peakSize)
+				peakSize = size;
+			return true;
+		}
+		if (key < keys[id]) {
+			keys[id] = key;
+			operations++;
+			siftUp(slot);
+			return true;
+		}
+		return false;
+	}
+
+	// Remove and return the id with the smallest key (heap must not be empty)
+	public int poll() {
+		int top = heap[0];
+		position[top] = -1;
+		size--;
+		operations++;
+		if (size > 0) {
+			int last = heap[size];
+			heap[0] = last;
+			position[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	// Empty the heap.  Only the ids still inside are touched, so this
+	// costs O(size) and not O(capacity)
+	public void clear() {
+		for (int i=0; i<size; i++)
+			position[heap[i]] = -1;
+		size = 0;
+	}
+
+	// Move the id at a heap slot up until its parent is no larger
+	private void siftUp(int slot) {
+		int id = heap[slot];
+		double key = keys[id];
+		while (slot > 0) {
+			int parentSlot = (slot - 1) >>> 1;
+			int parent = heap[parentSlot];
+			if (keys[parent] <= key)
+				break;
+			heap[slot] = parent;
+			position[parent] = slot;
+			slot = parentSlot;
+		}
+		heap[slot] = id;
+		position[id] = slot;
+	}
+
+	// Move the id at a heap slot down until both children are no smaller
+	private void siftDown(int slot) {
+		int id = heap[slot];
+		double key = keys[id];
+		int half = size >>> 1;
+		while (slot < half) {
+			int childSlot = 2*slot + 1;
+			int child = heap[childSlot];
+			int rightSlot = childSlot + 1;
+			if (rightSlot < size && keys[heap[rightSlot]] < keys[child]) {
+				childSlot = rightSlot;
+				child = heap[childSlot];
+			}
+			if (key <= keys[child])
+				break;
+			heap[slot] = child;
+			position[child] = slot;
+			slot = childSlot;
+		}
+		heap[slot] = id;
+		position[id] = slot;
+	}
+}
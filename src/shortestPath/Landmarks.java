@@ -0,0 +1,215 @@
+package shortestPath;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+// Landmark distance tables for A* ("ALT": A*, landmarks and the triangle
+// inequality).  A few nodes are picked as landmarks and the distance from
+// each landmark to every node is worked out once.  For any landmark L and
+// nodes v and t, the triangle inequality gives
+//    distance(v, t) >= |distance(L, t) - distance(L, v)|
+// so the largest of these over all landmarks is a lower bound on what is
+// left to travel from v to t.  Unlike the straight-line distance, this
+// holds whatever the link weights are (see Link.getWeight).
+//
+// Landmarks are picked far apart ("farthest point" selection): each new
+// landmark is the node farthest from all the landmarks picked so far, so
+// that they sit around the edges of the network, where they give the
+// best bounds.  Nodes the landmarks can't reach count as farthest of all,
+// so every separate piece of the network gets a landmark if possible.
+//
+// The tables never change once built, and can be written out and read
+// back in with the network (see write and read).
+public class Landmarks {
+
+	// Number of landmarks used when none is given
+	public static final int DEFAULT_COUNT = 8;
+
+	// Marks the start of landmark tables in a file
+	private static final int MAGIC = 0x4C4D4B31;	// "LMK1"
+
+	private final Graph graph;
+
+	// Node number of each landmark
+	private final int[] landmarks;
+
+	// distances[i][v] = distance from landmark i to node v (infinity if
+	// node v can't be reached from the landmark)
+	private final double[][] distances;
+
+	// Time taken to pick the landmarks and fill in the tables
+	private final long preprocessingNanos;
+
+	// Pick "count" landmarks in a graph (fewer if the graph is smaller)
+	// and work out their distance tables
+	public Landmarks(Graph g, int count) {
+		this(g, count, null);
+	}
+
+	// Same, counting the work against a budget (see SearchBudget.java; null
+	// for none), for the search the tables are built for.  Throws
+	// CancellationException if the budget runs out first.
+	Landmarks(Graph g, int count, SearchBudget budget) {
+		long startTime = System.nanoTime();
+		graph = g;
+		int n = g.numNodes;
+		count = Math.max(0, Math.min(count, n));
+		landmarks = new int[count];
+		distances = new double[count][];
+
+		// nearest[v] = distance from node v to the closest landmark so far
+		double[] nearest = new double[n];
+		Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+		boolean[] picked = new boolean[n];
+		Dijkstra dijkstra = new Dijkstra(g);
+		if (budget != null) {
+			// (the clock starts now, and each search goes on from the last)
+			budget.start();
+			budget.carryOver(0);
+			dijkstra.setBudget(budget);
+		}
+
+		// The first landmark is the node farthest from node 0, rather than
+		// node 0 itself, which could be anywhere
+		int next = 0;
+		if (count > 0)
+			next = farthest(searchAll(dijkstra, 0, budget), picked);
+		for (int i=0; i<count; i++) {
+			landmarks[i] = next;
+			picked[next] = true;
+			distances[i] = searchAll(dijkstra, next, budget);
+			for (int v=0; v<n; v++)
+				nearest[v] = Math.min(nearest[v], distances[i][v]);
+			next = farthest(nearest, picked);
+		}
+		preprocessingNanos = System.nanoTime() - startTime;
+	}
+
+	// Tables read back in (see read)
+	private Landmarks(Graph g, int[] l, double[][] d) {
+		graph = g;
+		landmarks = l;
+		distances = d;
+		preprocessingNanos = 0;
+	}
+
+	// "GET" METHODS
+
+	// Provide the graph the tables were built for
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Number of landmarks
+	public int getCount() {
+		return landmarks.length;
+	}
+
+	// Node number of a landmark
+	public int getLandmark(int i) {
+		return landmarks[i];
+	}
+
+	// Distance from a landmark to a node (infinity if not connected)
+	public double getDistance(int i, int node) {
+		return distances[i][node];
+	}
+
+	// Time taken to build the tables, in milliseconds (0 if read in)
+	public double getPreprocessingMillis() {
+		return preprocessingNanos/1e6;
+	}
+
+	// Memory taken by the tables, in bytes (array contents only)
+	public long getMemoryBytes() {
+		return 4L*landmarks.length + 8L*landmarks.length*graph.numNodes;
+	}
+
+	// Lower bound on the distance between two nodes (infinity if some
+	// landmark reaches one of them but not the other, since they are then
+	// not connected at all)
+	public double lowerBound(int node, int target) {
+		double best = 0;
+		for (int i=0; i<landmarks.length; i++) {
+			double[] d = distances[i];
+			double toNode = d[node];
+			double toTarget = d[target];
+			if (toNode == Double.POSITIVE_INFINITY || toTarget == Double.POSITIVE_INFINITY) {
+				if (toNode != toTarget)
+					return Double.POSITIVE_INFINITY;
+				continue;
+			}
+			double bound = Math.abs(toTarget - toNode);
+			if (bound > best)
+				best = bound;
+		}
+		return best;
+	}
+
+	// READING AND WRITING
+
+	// Write the tables out (see read)
+	public void write(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(graph.numNodes);
+		out.writeInt(landmarks.length);
+		for (int i=0; i<landmarks.length; i++) {
+			out.writeInt(landmarks[i]);
+			for (double d : distances[i])
+				out.writeDouble(d);
+		}
+	}
+
+	// Read tables written by write, for the same graph they were built
+	// for (node numbers must match, so the graph must be built from the
+	// same network, with nothing edited in between)
+	public static Landmarks read(DataInput in, Graph g) throws IOException {
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not landmark tables");
+		int n = in.readInt();
+		if (n != g.numNodes)
+			throw new IOException("Landmark tables are for " + n + " nodes, not " + g.numNodes);
+		int count = in.readInt();
+		if (count < 0 || count > n)
+			throw new IOException("Bad number of landmarks: " + count);
+		int[] l = new int[count];
+		double[][] d = new double[count][n];
+		for (int i=0; i<count; i++) {
+			l[i] = in.readInt();
+			if (l[i] < 0 || l[i] >= n)
+				throw new IOException("Bad landmark node: " + l[i]);
+			for (int v=0; v<n; v++)
+				d[i][v] = in.readDouble();
+		}
+		return new Landmarks(g, l, d);
+	}
+
+	// Distance from a node to every node, counting the search against the
+	// budget (if any)
+	private static double[] searchAll(Dijkstra dijkstra, int source, SearchBudget budget) {
+		double[] d = dijkstra.searchAll(source).getDistances();
+		if (budget != null) {
+			if (dijkstra.isStopped())
+				throw new CancellationException("Landmark tables were not finished within the budget");
+			budget.carryOver(dijkstra.getNodesExpanded());
+		}
+		return d;
+	}
+
+	// Node with the largest value (infinity counts as largest), skipping
+	// nodes that are already landmarks
+	private static int farthest(double[] values, boolean[] picked) {
+		int best = 0;
+		double bestValue = -1;
+		for (int v=0; v<values.length; v++) {
+			if (values[v] > bestValue && !picked[v]) {
+				best = v;
+				bestValue = values[v];
+			}
+		}
+		return best;
+	}
+}
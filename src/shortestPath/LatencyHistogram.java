@@ -0,0 +1,124 @@
+package shortestPath;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+// Counts how often each length of time (in nanoseconds) was seen, in the
+// manner of HdrHistogram: every power of two is split into SUB_BUCKETS
+// equal buckets, so a value is placed to within 1/SUB_BUCKETS of itself
+// (under 2%) from one nanosecond up to hundreds of years, in a fixed,
+// small table.  Recording a value is a few bit operations and a few
+// LongAdder increments.  A LongAdder gives threads that collide on it
+// separate cells, which are only added up when read.  So many threads can
+// record into the same histogram without fighting over shared counters,
+// while others read percentiles from it.  The count is the sum of the
+// buckets, and the largest value only costs a write when it grows.
+public class LatencyHistogram {
+
+	// Buckets per power of two (values below 2*SUB_BUCKETS get one each)
+	private static final int SUB_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+	// Enough buckets for any positive long
+	private static final int NUM_BUCKETS = (62 - SUB_BITS) * SUB_BUCKETS + 2*SUB_BUCKETS;
+
+	// Keeps the larger of two values (for the largest value recorded)
+	private static final LongBinaryOperator LARGER = new LongBinaryOperator() {
+		@Override
+		public long applyAsLong(long a, long b) {
+			return Math.max(a, b);
+		}
+	};
+
+	private final LongAdder[] counts = new LongAdder[NUM_BUCKETS];
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(LARGER, 0);
+
+	// An empty histogram
+	public LatencyHistogram() {
+		for (int bucket=0; bucket<NUM_BUCKETS; bucket++)
+			counts[bucket] = new LongAdder();
+	}
+
+	// "GET" METHODS
+
+	// Provide the number of values recorded
+	public long getCount() {
+		long n = 0;
+		for (int bucket=0; bucket<NUM_BUCKETS; bucket++)
+			n += counts[bucket].sum();
+		return n;
+	}
+
+	// Provide the largest value recorded (0 if none)
+	public long getMax() {
+		return max.get();
+	}
+
+	// Provide the average value recorded (0 if none)
+	public double getMean() {
+		long n = getCount();
+		return (n == 0) ? 0 : (double) total.sum() / n;
+	}
+
+	// Provide the value that "percent" percent of the values recorded are
+	// at or below (to within the width of its bucket; 0 if none)
+	public long getPercentile(double percent) {
+		// (the buckets are read once, so that values recorded meanwhile
+		// can't push the rank past the end)
+		long[] snapshot = new long[NUM_BUCKETS];
+		long n = 0;
+		for (int bucket=0; bucket<NUM_BUCKETS; bucket++) {
+			snapshot[bucket] = counts[bucket].sum();
+			n += snapshot[bucket];
+		}
+		if (n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+		long seen = 0;
+		for (int bucket=0; bucket<NUM_BUCKETS; bucket++) {
+			seen += snapshot[bucket];
+			if (seen >= rank)
+				return Math.min(highestValue(bucket), max.get());
+		}
+		return max.get();
+	}
+
+	// "SET" METHODS
+
+	// Count one value (negative values count as 0)
+	public void record(long value) {
+		value = Math.max(0, value);
+		counts[bucketOf(value)].increment();
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	// Forget every value recorded
+	public void reset() {
+		for (int bucket=0; bucket<NUM_BUCKETS; bucket++)
+			counts[bucket].reset();
+		total.reset();
+		max.reset();
+	}
+
+	// Bucket of a value: values below 2*SUB_BUCKETS have their own bucket;
+	// above that, the top SUB_BITS+1 bits of the value pick the bucket
+	// within its power of two
+	private static int bucketOf(long value) {
+		if (value < 2*SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return shift*SUB_BUCKETS + (int) (value >>> shift);
+	}
+
+	// Largest value that falls in a bucket
+	private static long highestValue(int bucket) {
+		if (bucket < 2*SUB_BUCKETS)
+			return bucket;
+		int shift = bucket/SUB_BUCKETS - 1;
+		long top = bucket - (long) shift*SUB_BUCKETS;
+		return ((top + 1) << shift) - 1;
+	}
+}
@@ -5,6 +5,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Polygon;
+import java.awt.Rectangle;
 
 // This class represents a "link" between two nodes
 public class Link {
@@ -15,16 +16,32 @@ public class Link {
 	
 	// Geometric constants
 	private Polygon outline;
-	private Integer radius = 4;
+	private static final int radius = 4;
+	
+	// Length of link (NOT LINK GRAPHIC), worked out whenever an end node
+	// moves so that searches can read it without doing any math
+	private double length;
+	
+	// Cost of travelling the link, if set by the user (negative when the
+	// link simply costs its length, see getWeight)
+	private double weight = -1;
 	
 	// Default link state
 	private LinkState state = LinkState.INACTIVE;
 	
+	// Network the link belongs to (told when the link is switched on or off
+	// or its weight changes)
+	private Network network;
+	
+	// Position of this link in the network's link list (-1 if not stored
+	// there), so the network can remove it without searching the list
+	private int index = -1;
+	
 	// Placeholder for a function (see "hightlight" and "needsRepaint" methods)
 	private boolean changed;
 	
 	// Define transparent "color" for inactive links
-	private Color transparent = new Color(0f,0f,0f,0f);
+	private static final Color transparent = new Color(0f,0f,0f,0f);
 	
 	// Link can only exist to connect two nodes
 	// (geometry of a link with any thickness is complex)
@@ -34,100 +51,91 @@ public class Link {
 		node1 = Node1;
 		node2 = Node2;
 		
+		// Work out length and polygon graphic
+		updateGeometry();
+		
+		// tbd
+		changed = false;
+	}
+	
+	// Recalculate the length and the polygon graphic (called when
+	// the link is made and whenever one of its nodes moves)
+	void updateGeometry() {
+		int x1 = node1.getX();
+		int y1 = node1.getY();
+		int x2 = node2.getX();
+		int y2 = node2.getY();
+		double delX = x2 - x1;
+		double delY = y2 - y1;
+		
+		// Length using Pythagorean Theorem
+		length = Math.sqrt(delX*delX + delY*delY);
+		
+		// x' and y' (x-axis and y-axis difference between an end node and
+		// a corner of polygon graphic): the radius, turned at right angles
+		// to the link.  Using the displacements directly (instead of the
+		// slope) keeps vertical links, whose slope is infinite, working.
+		double primeX = 0;
+		double primeY = 0;
+		if (length > 0) {
+			primeX = radius*Math.abs(delY)/length;
+			primeY = radius*Math.abs(delX)/length;
+			if (delX*delY > 0)
+				primeY = -primeY;
+		}
+		
 		// Declare x & y values for the 4 corners of the polygon graphic
 		//  (these four corners form an angled rectangle)
-		int[] xVals = {corner1x(), corner2x(), corner3x(), corner4x()};
-		int[] yVals = {corner1y(), corner2y(), corner3y(), corner4y()};
+		int[] xVals = {(int) Math.round(x1-primeX), (int) Math.round(x1+primeX),
+				(int) Math.round(x2+primeX), (int) Math.round(x2-primeX)};
+		int[] yVals = {(int) Math.round(y1-primeY), (int) Math.round(y1+primeY),
+				(int) Math.round(y2+primeY), (int) Math.round(y2-primeY)};
 		
 		// Define polygon itself
 		outline = new Polygon(xVals, yVals, 4);
-		
-		// tbd
-		changed = false;
 	}
 	
 	// "GET" METHODS
 	
-	// Get length of link (NOT LINK GRAPHIC) using Pythagorean Theorem
-	public Double getLength() {
-		return Math.sqrt(Math.pow(node2.getX() - node1.getX(), 2) + Math.pow(node2.getY() - node1.getY(), 2));
-	}
-
-	// Provide node at one end
-	public Node getBegin() {
-		return node1;
+	// Get length of link (NOT LINK GRAPHIC)
+	public double getLength() {
+		return length;
 	}
 	
-	// Provide node at other end
-	public Node getEnd() {
-		return node2;
+	// Get the cost of travelling the link, which is what the searches add
+	// up: its length, unless a different weight was set
+	public double getWeight() {
+		return (weight < 0) ? length : weight;
 	}
 	
-	// Provide y-axis displacement of link
-	private int delY() {
-		return node2.getY()-node1.getY();
-	}
-	
-	// Provide x-axis displacement of link
-	private int delX() {
-		return node2.getX()-node1.getX();
-	}
-	
-	// Get slope of link
-	private Double slope() {
-		return ((double) delY())/((double) delX());
-	}
-	
-	// Determine x' (x-axis difference between an end node and
-	// a corner of polygon graphic) using trig identities
-	private Double primeX() {
-		double m = slope();
-		return Math.abs(m*radius/(Math.sqrt(Math.pow(m, 2)+1)));
-	}
-	
-	// Determine y' (y-axis difference between an end node and
-	// a corner of polygon graphic) using trig identities
-	private Double primeY() {
-		double m = slope();
-		double prime = Math.abs(radius/(Math.sqrt(Math.pow(m, 2)+1)));
-		if (m > 0)
-			return -1*prime;
-		else
-			return prime;
+	// Was a weight other than the length set for the link?
+	public boolean hasCustomWeight() {
+		return weight >= 0;
 	}
 
-	// Determine specific coordinate value of one of the polygon corners
-	
-	private int corner1x() {
-		return (int) Math.round(node1.getX()-primeX());
-	}
-	
-	private int corner1y() {
-		return (int) Math.round(node1.getY()-primeY());
-	}
-	
-	private int corner2x() {
-		return (int) Math.round(node1.getX()+primeX());
+	// Provide position of link in the network's link list (-1 if none)
+	public int getIndex() {
+		return index;
 	}
 	
-	private int corner2y() {
-		return (int) Math.round(node1.getY()+primeY());
-	}	
-	
-	private int corner3x() {
-		return (int) Math.round(node2.getX()+primeX());
+	// Provide node at one end
+	public Node getBegin() {
+		return node1;
 	}
 	
-	private int corner3y() {
-		return (int) Math.round(node2.getY()+primeY());
+	// Provide node at other end
+	public Node getEnd() {
+		return node2;
 	}
 	
-	private int corner4x() {
-		return (int) Math.round(node2.getX()-primeX());
+	// Join the link to a network (network use only)
+	void setNetwork(Network n) {
+		network = n;
 	}
 	
-	private int corner4y() {
-		return (int) Math.round(node2.getY()-primeY());
+	// Set position of link in the network's link list (network use only)
+	void setIndex(int indexNew) {
+		index = indexNew;
 	}
 	
 	// "DRAW" METHODS
@@ -154,6 +162,25 @@ public class Link {
 		g2.fillPolygon(outline);
 	}
 	
+	// Draw link as a plain active link, whatever its current state
+	public void drawActive(Graphics g) {
+		g.setColor(Color.BLACK);
+		g.fillPolygon(outline);
+	}
+	
+	// Provide the area of the canvas covered by the link graphic
+	// (one pixel larger on each side, to allow for rounding)
+	public Rectangle getBounds() {
+		Rectangle bounds = outline.getBounds();
+		bounds.grow(1, 1);
+		return bounds;
+	}
+	
+	// Provide the width of the link graphic on each side of the line
+	public static int getRadius() {
+		return radius;
+	}
+	
 	// Is the cursor over the polygon?
 	public boolean inZone(Point point) {
 		return outline.contains(point);
@@ -167,7 +194,7 @@ public class Link {
 	// (see also LinkState.java)
 	public void highlight(Point point) {
 		LinkState originalState = state;
-		if (state != LinkState.ACTIVE) {
+		if (!isActive()) {
 			if (inZone(point))
 				state = LinkState.HIGHLIGHTED;
 			else
@@ -192,27 +219,67 @@ public class Link {
 		this.state = LinkState.PATHLEG;
 	}
 	
-	// Remove path highlighting
+	// Remove path highlighting (a path link that has since been switched
+	// off stays off)
 	public void dehighlightPath() {
-		this.state = LinkState.ACTIVE;
+		if (state == LinkState.PATHLEG)
+			this.state = LinkState.ACTIVE;
+	}
+	
+	// Set the cost of travelling the link (instead of its length)
+	public void setWeight(double newWeight) {
+		if (!(newWeight >= 0) || Double.isInfinite(newWeight))
+			throw new IllegalArgumentException("Link weight must be a finite number, zero or more: " + newWeight);
+		weight = newWeight;
+		if (network != null)
+			network.linkChanged(this);
+	}
+	
+	// Go back to using the link's length as its cost
+	public void clearWeight() {
+		weight = -1;
+		if (network != null)
+			network.linkChanged(this);
 	}
 	
 	// Mark link as active (used for functions)
 	public void activate() {
+		boolean wasActive = isActive();
 		state = LinkState.ACTIVE;
+		if (!wasActive)
+			topologyChanged();
 	}
 	
 	// Activate only if highlighted (for user click action only)
 	public void activateFromClick(boolean activate) {
+		boolean wasActive = isActive();
 		if (activate && (state == LinkState.HIGHLIGHTED))
 			state = LinkState.ACTIVE;
 		else
 			state = LinkState.INACTIVE;
+		if (wasActive != isActive())
+			topologyChanged();
+	}
+	
+	// Provide state of link (see also LinkState.java)
+	public LinkState getState() {
+		return state;
 	}
 	
-	// Is link active?
+	// Is link highlighted by the mouse cursor?
+	public boolean isHighlighted() {
+		return (state == LinkState.HIGHLIGHTED);
+	}
+	
+	// Is link active?  (Links highlighted as part of a path are still active)
 	public boolean isActive() {
-		return (state == LinkState.ACTIVE);
+		return (state == LinkState.ACTIVE) || (state == LinkState.PATHLEG);
+	}
+	
+	// Let the network know that the set of active links has changed
+	private void topologyChanged() {
+		if (network != null)
+			network.linkChanged(this);
 	}
 	
 	// Return the node at the other end, given node at "this" end
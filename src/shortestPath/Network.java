@@ -1,7 +1,10 @@
 package shortestPath;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Random;
 
 // The Network class holds all the information the nodes and links,
@@ -12,46 +15,121 @@ public class Network {
 	private ArrayList<Node> nodes;
 	private ArrayList<Link> links;
 	
+	// Frozen copy of the active links for searching (see Graph.java), built
+	// when first needed and thrown away whenever the active links change
+	private Graph graph;
+	private Dijkstra dijkstra;
+	private PathSearch exhaustive;
+	private PathSearch aStar;
+	private PathSearch bidirectional;
+	private ContractionHierarchy hierarchy;
+	private PathSearch hierarchySearch;
+	private Landmarks landmarks;
+	private PathSearch landmarkSearch;
+	
+	// Which nodes are connected (see ComponentIndex.java).  Kept up to date
+	// as nodes are added and links switched on; thrown away (and rebuilt
+	// when next needed) when links are switched off or nodes removed.
+	private ComponentIndex components;
+	
+	// Listeners told about every edit (see NetworkListener.java)
+	private ArrayList<NetworkListener> listeners = new ArrayList<NetworkListener>();
+	
+	// Counts edits to the network (see getVersion)
+	private int version = 0;
+	
+	// Number of nodes expanded by the last graph search (see getNodesExpanded)
+	private int nodesExpanded;
+	
+	// What the last search between two nodes cost (see getLastStats)
+	private SearchStats lastStats;
+	
+	// In "sparse" mode only active links are stored.  Otherwise (the original
+	// behaviour) every pair of nodes gets a link object up front, so that
+	// inactive links can be highlighted under the mouse cursor.  That costs
+	// V(V-1)/2 links, which is too much for big networks, so sparse networks
+	// instead make "candidate" links for the cursor on the fly (see hover).
+	private boolean sparse;
+	
+	// Candidate links currently under the cursor (sparse mode only)
+	private ArrayList<Link> candidates = new ArrayList<Link>();
+	
+	// Node click areas and stored link outlines, filed by position so that
+	// the mouse only has to be checked against the items near it (see
+	// SpatialGrid.java).  Kept up to date as nodes and links are added,
+	// removed and moved.
+	private SpatialGrid<Node> nodeGrid = new SpatialGrid<Node>(GRID_CELL_SIZE);
+	private SpatialGrid<Link> linkGrid = new SpatialGrid<Link>(GRID_CELL_SIZE);
+	
+	// Links under the cursor at the last hover (see hover)
+	private ArrayList<Link> hovered = new ArrayList<Link>();
+	
+	// Size of a grid cell, in pixels
+	private static final int GRID_CELL_SIZE = 25;
+	
+	// Candidate links are only made between this many nodes closest to the
+	// cursor (networks with fewer nodes behave exactly like dense ones)
+	private static final int CANDIDATE_NODES = 64;
+	
+	// How close (in pixels) the cursor must be to the line between two
+	// nodes before a candidate link is made to test the point exactly
+	private static final double CANDIDATE_DISTANCE = 6;
+	
+	// If none of the pairs of CANDIDATE_NODES nodes passes under the cursor,
+	// this many nodes closest to it are tried, for links between nodes
+	// farther apart (see wideCandidates)
+	private static final int WIDE_CANDIDATE_NODES = 4096;
+	
 	// Initialize empty network
 	public Network() {
+		this(false);
+	}
+	
+	// Initialize empty network, optionally in sparse mode (see above)
+	public Network(boolean sparseMode) {
 		nodes = new ArrayList<Node>();
 		links = new ArrayList<Link>();
+		sparse = sparseMode;
+	}
+	
+	// Initialize sparse network holding the nodes and links of a graph
+	// (for example one read from a file, see NetworkFile.java).  Node
+	// numbers and link weights are kept.
+	public Network(Graph graph) {
+		this(true);
+		int n = graph.getNumNodes();
+		for (int i=0; i<n; i++)
+			addNode(graph.xs[i], graph.ys[i]);
+		for (int node=0; node<n; node++) {
+			for (int slot = graph.offsets[node]; slot < graph.offsets[node+1]; slot++) {
+				int other = graph.targets[slot];
+				if (other < node)
+					continue;
+				Link link = connect(nodes.get(node), nodes.get(other));
+				if (graph.weights[slot] != link.getLength())
+					link.setWeight(graph.weights[slot]);
+			}
+		}
 	}
 	
 	// Initialize random network
 	public Network(int minNodes, int maxNodes, int linksPerNode) {
-		
-		// Start with empty network
-		nodes = new ArrayList<Node>();
-		links = new ArrayList<Link>();
-		
-		// Initialize randomizer
-		Random rand = new Random();
-		
-		// Add random number of nodes (b/w minNodes and maxNodes at
-		// random locations (between x/y=25 and x/y=475
-		int numNodes = rand.nextInt(maxNodes-minNodes)+minNodes;
-		for (int i=0; i < numNodes; i++) {
-			this.addNode(rand.nextInt(450)+25, rand.nextInt(450)+25);
-		}
-		
-		// Empty list of loners (nodes with no links)
-		ArrayList<Node> removeThese = new ArrayList<Node>();
-		
-		// Activate links between nodes at a frequency of linkFreq (b/w 0 and 1)
-		// note: since there are two nodes for each link, the frequency is divided by 2
-		double linkFreq = Double.valueOf(linksPerNode)/2*Double.valueOf(numNodes)/Double.valueOf(this.getNumLinks());
-		
-		for (Link link : this.links) {
-			double i = rand.nextFloat();
-			if (i < linkFreq) link.activate();
-		}	
-		
-		// Build list of orphan nodes
-		for (Node node : nodes)
-			if (node.getActiveLinks().isEmpty()) removeThese.add(node);
-		// Remove orphan nodes
-		for (Node node : removeThese) removeNode(node);
+		this(minNodes, maxNodes, linksPerNode, new Random());
+	}
+	
+	// Initialize random network from a fixed seed (the same seed always
+	// gives the same network, which makes test runs repeatable)
+	public Network(int minNodes, int maxNodes, int linksPerNode, long seed) {
+		this(minNodes, maxNodes, linksPerNode, new Random(seed));
+	}
+	
+	// Initialize random network using the given randomizer: between
+	// minNodes and maxNodes-1 nodes at random locations (between x/y=25
+	// and x/y=475), with about linksPerNode links each and no loners
+	// (nodes with no links).  Only the chosen links are made (see
+	// NetworkGenerator.java), so the network is in sparse mode.
+	private Network(int minNodes, int maxNodes, int linksPerNode, Random rand) {
+		this(NetworkGenerator.randomGraph(minNodes, maxNodes, linksPerNode, rand));
 	}
 	
 	// "GET" METHODS
@@ -66,6 +144,44 @@ public class Network {
 		return links;
 	}
 	
+	// Provide candidate links under the cursor (always empty unless sparse)
+	public ArrayList<Link> getCandidateLinks() {
+		return candidates;
+	}
+	
+	// Does the network only store active links?
+	public boolean isSparse() {
+		return sparse;
+	}
+	
+	// Provide the node under the cursor (null if none).  If node click areas
+	// overlap, the node added last wins, as it is drawn on top.
+	public Node getNodeAt(Point point) {
+		Node found = null;
+		for (Node node : nodeGrid.get(point)) {
+			if (node.inZone(point) && ((found == null) || (node.getIndex() > found.getIndex())))
+				found = node;
+		}
+		return found;
+	}
+	
+	// Provide all the links (including candidate links) under the cursor
+	public ArrayList<Link> getLinksAt(Point point) {
+		ArrayList<Link> output = new ArrayList<Link>();
+		for (Link link : linkGrid.get(point))
+			if (link.inZone(point)) output.add(link);
+		for (Link link : candidates)
+			if (link.inZone(point)) output.add(link);
+		return output;
+	}
+	
+	// Provide the link joining two nodes (null if there is none stored)
+	public Link getLink(Node node1, Node node2) {
+		for (Link link : node1.getLinks())
+			if (link.getOther(node1) == node2) return link;
+		return null;
+	}
+	
 	// Provide active links only
 	public ArrayList<Link> getActiveLinks() {
 		ArrayList<Link> output = new ArrayList<Link>();
@@ -85,11 +201,70 @@ public class Network {
 		return links.size();
 	}
 	
-	// Find the length of a path (array of links)
+	// Provide a frozen copy of the nodes and active links to search
+	// (rebuilt only if the network was changed since the last call)
+	public Graph getGraph() {
+		if (graph == null)
+			graph = new Graph(nodes, links);
+		return graph;
+	}
+	
+	// Provide the index of which nodes are connected, by node number
+	// (rebuilt only if links were switched off or nodes removed since the
+	// last call)
+	public ComponentIndex getComponents() {
+		if (components == null) {
+			components = new ComponentIndex(nodes.size());
+			for (Link link : links) {
+				if (link.isActive())
+					components.union(link.getBegin().getIndex(), link.getEnd().getIndex());
+			}
+		}
+		return components;
+	}
+	
+	// Are two nodes of the network joined by active links?
+	public boolean isConnected(Node node1, Node node2) {
+		if ((node1.getIndex() < 0) || (node2.getIndex() < 0))
+			return false;
+		return getComponents().connected(node1.getIndex(), node2.getIndex());
+	}
+	
+	// Start telling a listener about every edit to the network
+	public void addListener(NetworkListener listener) {
+		listeners.add(listener);
+	}
+	
+	// Stop telling a listener about edits
+	public void removeListener(NetworkListener listener) {
+		listeners.remove(listener);
+	}
+	
+	// Provide the version number of the network, which goes up every time
+	// nodes are added, removed or moved, or links are switched on or off
+	// or reweighted (lets the display and other users know when to refresh what they keep)
+	public int getVersion() {
+		return version;
+	}
+	
+	// Provide the number of nodes expanded by the last graph search
+	// (for comparing how much work each search does)
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+	
+	// Provide the counts and times of the last search between two nodes
+	// (null before the first one; see SearchStats.java)
+	public SearchStats getLastStats() {
+		return lastStats;
+	}
+	
+	// Find the length of a path (array of links), counting each link by
+	// its weight (see Link.getWeight)
 	public static double getPathLength(ArrayList<Link> path) {
 		double length = 0;
 		for (Link link : path)
-			length += link.getLength();
+			length += link.getWeight();
 		return length;
 	}
 	
@@ -102,65 +277,355 @@ public class Network {
 		// Create links between new node and EVERY OTHER NODE
 		// (this allows potential links to be highlighted)
 		// Links must be "active" to be of any use in network
-		for (Node node : nodes) {
-			Link link = new Link(newNode, node);
-			links.add(link);
-			node.addLink(link);
-			newNode.addLink(link);
+		// (sparse networks skip this, see "sparse" above)
+		if (!sparse) {
+			for (Node node : nodes) {
+				Link link = new Link(newNode, node);
+				link.setNetwork(this);
+				storeLink(link);
+			}
 		}
 		
 		// Add node to network
+		newNode.setIndex(nodes.size());
 		nodes.add(newNode);
+		if (components != null)
+			components.addNode();
+		nodeGrid.add(newNode, newNode.getBounds());
+		topologyChanged();
+		for (NetworkListener listener : new ArrayList<NetworkListener>(listeners))
+			listener.nodeAdded(newNode);
 		return newNode;	// sometimes it's necessary to return the node
 	}
 	
-	// Move a node (and it's associated links) to a new location
+	// Move a node (and it's associated links) to a new location.  The node
+	// keeps its links; their lengths and outlines are recalculated by the node
 	public void moveNode(Node targetNode, Point point) {
-		
-		// Get linked nodes where the links are active
-		ArrayList<Node> connectedNodes = new ArrayList<Node>();
-		for (Link link : targetNode.getActiveLinks())
-			connectedNodes.add(link.getOther(targetNode));
-		
-		// Remove the node from the network, add a new one at new location
-		removeNode(targetNode);
-		Node newNode = this.addNode(point.x, point.y);
-		
-		// Activate new links (were active prior to this operation)
-		for (Link link : newNode.getLinks()) {
-			if (connectedNodes.contains(link.getOther(newNode)))
-				link.activate();
+		targetNode.setPosition(point.x, point.y);
+		nodeGrid.add(targetNode, targetNode.getBounds());
+		for (Link link : targetNode.getLinks()) {
+			if (linkGrid.contains(link))
+				fileLink(link);
 		}
+		candidates.clear();
+		topologyChanged();
+		for (NetworkListener listener : new ArrayList<NetworkListener>(listeners))
+			listener.nodeMoved(targetNode);
 	}
 	
-	// Remove a node (and all links that connected it)
+	// Activate the link between two nodes (in sparse mode, the link
+	// is created first).  Returns the link.
+	public Link connect(Node node1, Node node2) {
+		Link link = getLink(node1, node2);
+		if (link == null) {
+			link = new Link(node1, node2);
+			link.setNetwork(this);
+		}
+		link.activate();
+		return link;
+	}
+	
+	// Remove a node (and all links that connected it).  The last node in
+	// the list takes the removed node's place (and number), so nothing has
+	// to be searched or shifted: the cost is one step per link the node had.
 	public void removeNode(Node targetNode) {
-		nodes.remove(targetNode);
+		int index = targetNode.getIndex();
+		if ((index < 0) || (index >= nodes.size()) || (nodes.get(index) != targetNode))
+			return;
+		Node last = nodes.remove(nodes.size() - 1);
+		if (last != targetNode) {
+			nodes.set(index, last);
+			last.setIndex(index);
+		}
+		nodeGrid.remove(targetNode);
+		targetNode.setIndex(-1);
 		removeLink(targetNode);
+		components = null;
+		topologyChanged();
+		for (NetworkListener listener : new ArrayList<NetworkListener>(listeners))
+			listener.nodeRemoved(targetNode);
 	}
 	
-	// Remove all links connected to a node
+	// Remove all links connected to a node, from the network and from the
+	// nodes at their other ends.  The node keeps its own list of them, so
+	// listeners can still see what it was connected to.
 	public void removeLink(Node targetNode) {
-		
-		// Tally "orphan links" (links previously connecting with removed node)
-		ArrayList<Link> orphans = new ArrayList<Link>();
-		for (Link link : links) {
-			if ((link.getBegin() == targetNode) || (link.getEnd() == targetNode))
-				orphans.add(link);
+		for (Link link : targetNode.getLinks()) {
+			dropLink(link);
+			link.getOther(targetNode).removeLink(link);
+			link.setNetwork(null);
 		}
-		
-		// Remove individual "orphan" links
-		for (Link link : orphans) {
-			links.remove(link);
+		for (Iterator<Link> i = candidates.iterator(); i.hasNext(); ) {
+			Link candidate = i.next();
+			if (candidate.getOther(targetNode) != null)
+				i.remove();
 		}
 	}
 	
 	// Deactivate a link
 	public void deactivateLink(Link targetLink) {
-		for (Link link : links) {
-			if (link == targetLink)
-				link.activateFromClick(false);
+		if (isStored(targetLink))
+			targetLink.activateFromClick(false);
+	}
+	
+	// Highlight whichever links (active or not) are under the cursor.  Dense
+	// networks check the links filed under the cursor.  Sparse networks also
+	// make candidate links between the nodes closest to the cursor and keep
+	// the ones the cursor is over (looking farther afield if there are none,
+	// see wideCandidates).  Returns the area of the canvas covered by links
+	// that changed (to be redrawn), or null if nothing changed.
+	public Rectangle hover(Point point) {
+		Rectangle damage = null;
+		
+		// Only the links filed under the cursor's grid cell, and the ones
+		// that were under the cursor last time, can change
+		ArrayList<Link> newHovered = new ArrayList<Link>();
+		for (Link link : hovered) {
+			link.highlight(point);
+			if (link.needsRepaint())
+				damage = addDamage(damage, link);
+		}
+		for (Link link : linkGrid.get(point)) {
+			link.highlight(point);
+			if (link.needsRepaint())
+				damage = addDamage(damage, link);
+			if (link.isHighlighted())
+				newHovered.add(link);
+		}
+		hovered = newHovered;
+		if (!sparse)
+			return damage;
+		
+		// Find the candidate links now under the cursor, keeping the
+		// existing link object for any pair that was already a candidate
+		ArrayList<Link> newCandidates = new ArrayList<Link>();
+		ArrayList<Node> nearby = nodeGrid.getNearby(point, CANDIDATE_NODES);
+		for (int i=0; i<nearby.size(); i++) {
+			for (int j=i+1; j<nearby.size(); j++)
+				addCandidate(point, nearby.get(i), nearby.get(j), newCandidates);
+		}
+		if (newCandidates.isEmpty() && nearby.size() < nodeGrid.size())
+			wideCandidates(point, newCandidates);
+		for (Link link : newCandidates) {
+			link.highlight(point);
+			if (link.needsRepaint())
+				damage = addDamage(damage, link);
+		}
+		// Candidates no longer under the cursor disappear
+		for (Link link : candidates) {
+			if (!newCandidates.contains(link))
+				damage = addDamage(damage, link);
+		}
+		candidates = newCandidates;
+		return damage;
+	}
+	
+	// Look for candidate links under the cursor among the
+	// WIDE_CANDIDATE_NODES nodes closest to it, too many to try every pair.
+	// The cursor can only be near a link whose ends lie in almost opposite
+	// directions from it: if the nearer end is r pixels away, the farther
+	// one is within asin(2*CANDIDATE_DISTANCE/r) of straight opposite.  So
+	// the nodes are sorted by direction, and each one is only paired with
+	// the nodes at least as far away in that narrow range opposite it.
+	private void wideCandidates(Point point, ArrayList<Link> newCandidates) {
+		ArrayList<Node> nearby = nodeGrid.getNearby(point, WIDE_CANDIDATE_NODES);
+		int n = nearby.size();
+		double[] angles = new double[n];
+		double[] distances = new double[n];
+		
+		// Sort by direction: the angle (as a fraction of a turn, in 40 bits)
+		// and node's place in "nearby" are packed into one key
+		long[] keys = new long[n];
+		for (int i=0; i<n; i++) {
+			Node node = nearby.get(i);
+			double dx = node.getX() - point.x;
+			double dy = node.getY() - point.y;
+			angles[i] = Math.atan2(dy, dx);
+			distances[i] = Math.sqrt(dx*dx + dy*dy);
+			long turn = (long) ((angles[i] + Math.PI) / (2*Math.PI) * (1L << 40));
+			keys[i] = (Math.min(turn, (1L << 40) - 1) << 23) | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[n];
+		double[] sorted = new double[n];
+		for (int k=0; k<n; k++) {
+			order[k] = (int) (keys[k] & 0x7FFFFF);
+			sorted[k] = angles[order[k]];
+		}
+		
+		// Nodes opposite each node: angles from (opposite - spread) to
+		// (opposite + spread), going once around the circle at most
+		for (int i=0; i<n; i++) {
+			double r = distances[i];
+			double spread = (r <= 2*CANDIDATE_DISTANCE) ? Math.PI : Math.asin(2*CANDIDATE_DISTANCE/r);
+			double low = angles[i] + Math.PI - spread;
+			double high = angles[i] + Math.PI + spread;
+			int first = firstAtLeast(sorted, low);
+			for (int k=first; k<first+n; k++) {
+				// (past the end, the angles go round again, 2 pi higher)
+				int wrapped = k % n;
+				double angle = sorted[wrapped] + 2*Math.PI*(k/n);
+				if (angle > high)
+					break;
+				int j = order[wrapped];
+				if ((distances[j] < r) || ((distances[j] == r) && (j <= i)))
+					continue;
+				addCandidate(point, nearby.get(i), nearby.get(j), newCandidates);
+			}
+		}
+	}
+	
+	// Index of the first of the angles (sorted, between -pi and pi) that is
+	// at least "angle", counting on round the circle (plus 2 pi) if none is
+	private static int firstAtLeast(double[] sorted, double angle) {
+		int n = sorted.length;
+		int turns = 0;
+		while (angle > Math.PI) {
+			angle -= 2*Math.PI;
+			turns++;
+		}
+		int low = 0;
+		int high = n;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] < angle)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return turns*n + low;
+	}
+	
+	// Keep the candidate link between two nodes if the cursor is over it
+	// (reusing the existing link object if the pair was already a
+	// candidate)
+	private void addCandidate(Point point, Node node1, Node node2, ArrayList<Link> newCandidates) {
+		if (!nearLine(point, node1, node2) || (getLink(node1, node2) != null))
+			return;
+		Link candidate = null;
+		for (Link link : candidates) {
+			if (link.getOther(node1) == node2) candidate = link;
+		}
+		if (candidate == null) {
+			candidate = new Link(node1, node2);
+			candidate.setNetwork(this);
+		}
+		if (candidate.inZone(point))
+			newCandidates.add(candidate);
+	}
+	
+	// Grow a damaged area (null if none yet) to cover a link
+	private static Rectangle addDamage(Rectangle damage, Link link) {
+		Rectangle bounds = link.getBounds();
+		if (damage == null)
+			return bounds;
+		damage.add(bounds);
+		return damage;
+	}
+	
+	// Provide the stored links and candidate links that may overlap an area
+	// of the canvas (used to redraw only part of the canvas)
+	public ArrayList<Link> getLinksIn(Rectangle area) {
+		ArrayList<Link> output = linkGrid.get(area);
+		for (Link link : candidates)
+			if (link.getBounds().intersects(area)) output.add(link);
+		return output;
+	}
+	
+	// Provide the nodes that may overlap an area of the canvas
+	public ArrayList<Node> getNodesIn(Rectangle area) {
+		return nodeGrid.get(area);
+	}
+	
+	// Is a point within CANDIDATE_DISTANCE of the line segment between two nodes?
+	private static boolean nearLine(Point point, Node node1, Node node2) {
+		double dx = node2.getX() - node1.getX();
+		double dy = node2.getY() - node1.getY();
+		double px = point.x - node1.getX();
+		double py = point.y - node1.getY();
+		double lengthSquared = dx*dx + dy*dy;
+		double t = (lengthSquared == 0) ? 0 : Math.max(0, Math.min(1, (px*dx + py*dy)/lengthSquared));
+		double ex = px - t*dx;
+		double ey = py - t*dy;
+		return ex*ex + ey*ey <= CANDIDATE_DISTANCE*CANDIDATE_DISTANCE;
+	}
+	
+	// Called when a link is switched on or off, or its weight is changed.
+	// Sparse networks only store active links, so the link is stored or
+	// dropped here.
+	void linkChanged(Link link) {
+		if (sparse) {
+			if (link.isActive() && (getLink(link.getBegin(), link.getEnd()) == null)) {
+				storeLink(link);
+				candidates.remove(link);
+			}
+			else if (!link.isActive() && isStored(link)) {
+				dropLink(link);
+				link.getBegin().removeLink(link);
+				link.getEnd().removeLink(link);
+			}
+		}
+		if (components != null) {
+			if (link.isActive() && (link.getBegin().getIndex() >= 0) && (link.getEnd().getIndex() >= 0))
+				components.union(link.getBegin().getIndex(), link.getEnd().getIndex());
+			else
+				components = null;
 		}
+		topologyChanged();
+		for (NetworkListener listener : new ArrayList<NetworkListener>(listeners))
+			listener.linkChanged(link);
+	}
+	
+	// Add a link to the link list, the link grid and its two nodes
+	private void storeLink(Link link) {
+		link.setIndex(links.size());
+		links.add(link);
+		fileLink(link);
+		link.getBegin().addLink(link);
+		link.getEnd().addLink(link);
+	}
+	
+	// Take a link out of the link list and the link grid (but not its
+	// nodes).  The last link in the list takes its place.
+	private void dropLink(Link link) {
+		int index = link.getIndex();
+		Link last = links.remove(links.size() - 1);
+		if (last != link) {
+			links.set(index, last);
+			last.setIndex(index);
+		}
+		link.setIndex(-1);
+		linkGrid.remove(link);
+		hovered.remove(link);
+	}
+	
+	// Is a link stored in this network's link list?
+	private boolean isStored(Link link) {
+		int index = link.getIndex();
+		return (index >= 0) && (index < links.size()) && (links.get(index) == link);
+	}
+	
+	// File a link in the link grid under the cells its outline crosses
+	private void fileLink(Link link) {
+		Node begin = link.getBegin();
+		Node end = link.getEnd();
+		linkGrid.addAlong(link, begin.getX(), begin.getY(), end.getX(), end.getY(), Link.getRadius() + 1);
+	}
+	
+	// Called whenever nodes are added or removed, or a link is switched on
+	// or off or reweighted, so that the search graph is rebuilt before the
+	// next search
+	void topologyChanged() {
+		version++;
+		graph = null;
+		dijkstra = null;
+		exhaustive = null;
+		aStar = null;
+		bidirectional = null;
+		hierarchy = null;
+		hierarchySearch = null;
+		landmarks = null;
+		landmarkSearch = null;
 	}
 	
 	// For a path, "highlight" each link (note that this is different
@@ -176,78 +641,186 @@ public class Network {
 			link.dehighlightPath();
 	}
 	
-	// This function is the heart of the program: a recursive algorithm for 
-	// finding the shortest path between the given "start" and "finish" nodes,
-	// using only active links as part of the path.  The function starts with
-	// the first node, traverses each of it's active links (unless the link is
-	// already part of the path), called "branches," invoking the function again 
-	// for each new branch.  The function returns null if there are no more
-	// branches to traverse, or it reaches the end, in which case it returns the
-	// branch that got there.  Going "down the stack," the function returns
-	// the shortest path found for each branch.  It is easy for the network to
-	// get so complex that this recursion becomes entirely inefficient, even with
-	// the check for previously traveled links.  As such, a "max depth" variable
-	// is available to keep the stack short, as necessary.
-	// Arguments: 
-	// ArrayList<Link> path - a branch from the "previous" node to build upon
-	//    (first iteration would be null, since there is no path yet)
-	// Node lastnode - the node connected to the other end of the last link (makes things easier)
-	//    (first iteration would be the "start" node)
-	// int maxdepth - Limits the recursion level to avoid overflow in larger networks
-	public ArrayList<Link> shortestPath(ArrayList<Link> path, Node lastNode, int maxDepth) {
-		// Halt recursion if maxdepth is met, record depth otherwise:
-		if (maxDepth < 0)
-			return null;
-		else
-			maxDepth--;
-		// Return a path that has found it's way to the end
-		if (lastNode.getState() == NodeState.FINISH) {
-			return path;
-		}
-		// Compare distance of branches, return the shortest one found
-		else {
-			ArrayList<Link> shorterPath = null;
-			
-			// Get branches (links connected to the last node...
-			for (Link link : lastNode.getActiveLinks()) {
-				ArrayList<Link> branch = new ArrayList<Link>();
-				ArrayList<Link> considerThis = null;
-				boolean beenThere = false;
-				if (path == null)
-					branch.add(link);
-				else {
-					// IMPORTANT: without ignoring links already traveled,
-					// the function could easily get lost in a loop
-					if (path.contains(link))
-						beenThere = true;
-					else {
-						branch = new ArrayList<Link>(path);
-						branch.add(link);
-					}
-				}
-				// To find shortest distance to "finish," more instances of the function
-				// are called.  Each "branch" will return either a 'null' (could not
-				// find "finish" node) or a path to the "finish" node.  The shortest of these
-				// paths is returned (or null, if not found)
-				if (!beenThere) {
-					considerThis = shortestPath(branch, link.getOther(lastNode), maxDepth);
-					if (considerThis != null) {
-						if (shorterPath == null)
-							shorterPath = new ArrayList<Link>(considerThis);
-						else {
-							if (getPathLength(considerThis) < getPathLength(shorterPath))
-								shorterPath = new ArrayList<Link>(considerThis);
-						}
-					}
-				}
-			}
-			return shorterPath;
+	// Shortest path between two nodes using the given kind of search (see
+	// the methods below).  Returns null if there is no path.
+	public ArrayList<Link> shortestPath(Node start, Node finish, Algorithm algorithm) {
+		switch (algorithm) {
+		case EXHAUSTIVE:
+			return shortestPathExhaustive(start, finish);
+		case ASTAR:
+			return shortestPathAStar(start, finish);
+		case LANDMARKS:
+			return shortestPathLandmarks(start, finish);
+		case BIDIRECTIONAL:
+			return shortestPathBidirectional(start, finish);
+		case CONTRACTION:
+			return shortestPathContraction(start, finish);
+		default:
+			return shortestPathDijkstra(start, finish);
 		}
 	}
 	
-	// Call shortest path function without having a path to start with
-	// (start with "Start" node)
-	public ArrayList<Link> shortestPath(Node lastNode, int maxDepth) {
-		return shortestPath(null, lastNode, maxDepth);
+	// Provide the network's search object for one of the algorithms, made
+	// on first use and kept until the network is edited (for landmarks or
+	// a contraction hierarchy, this builds the tables or the hierarchy
+	// first).  The object searches the network as it is now, so it can be
+	// run on another thread while this one goes on (see SearchTask.java),
+	// as long as nothing else uses the same object meanwhile.
+	public PathSearch getSearch(Algorithm algorithm) {
+		switch (algorithm) {
+		case EXHAUSTIVE:
+			if (exhaustive == null)
+				exhaustive = new ExhaustiveSearch(getGraph());
+			return exhaustive;
+		case ASTAR:
+			if (aStar == null)
+				aStar = new AStar(getGraph());
+			return aStar;
+		case LANDMARKS:
+			if (landmarkSearch == null)
+				landmarkSearch = new AStar(getGraph(), getLandmarks());
+			return landmarkSearch;
+		case BIDIRECTIONAL:
+			if (bidirectional == null)
+				bidirectional = new BidirectionalDijkstra(getGraph());
+			return bidirectional;
+		case CONTRACTION:
+			if (hierarchySearch == null)
+				hierarchySearch = getHierarchy().newSearch();
+			return hierarchySearch;
+		default:
+			if (dijkstra == null)
+				dijkstra = new Dijkstra(getGraph());
+			return dijkstra;
+		}
+	}
+	
+	// Is one of the algorithms ready to search without building anything
+	// slow first (landmark tables or a contraction hierarchy)?
+	public boolean isPrepared(Algorithm algorithm) {
+		if (algorithm == Algorithm.LANDMARKS)
+			return landmarks != null;
+		if (algorithm == Algorithm.CONTRACTION)
+			return hierarchy != null;
+		return true;
+	}
+	
+	// The program's original search: every path from "start" that doesn't
+	// pass through a node twice is followed to "finish", and the shortest
+	// one wins (see ExhaustiveSearch.java).  The paths are walked on a
+	// stack kept in arrays, so there is no limit on how many links a path
+	// can have.  This takes time exponential in the size of the network,
+	// so it is only for small networks.  Returns the links of the path in
+	// order from "start" to "finish," or null if there is no path.
+	public ArrayList<Link> shortestPathExhaustive(Node start, Node finish) {
+		return shortestPath(Algorithm.EXHAUSTIVE, getSearch(Algorithm.EXHAUSTIVE), start, finish);
+	}
+	
+	// Dijkstra's algorithm for the shortest path between the "start" and
+	// "finish" nodes.  Unlike the exhaustive search above, each node is only
+	// settled once: nodes wait in an indexed heap keyed by their best known
+	// distance from "start," and the closest one is always expanded next.
+	// This runs in O((V+E) log V).  The search runs
+	// on the network's Graph (see Graph.java and Dijkstra.java).  Returns the
+	// links of the path in order from "start" to "finish," or null if the
+	// two nodes are not connected by active links.
+	public ArrayList<Link> shortestPathDijkstra(Node start, Node finish) {
+		return shortestPath(Algorithm.DIJKSTRA, getSearch(Algorithm.DIJKSTRA), start, finish);
+	}
+	
+	// A* search for the shortest path between the "start" and "finish"
+	// nodes.  Same result as Dijkstra's search, but the straight-line
+	// distance to "finish" steers the search toward it, so fewer nodes
+	// are expanded (see AStar.java).  Returns null if there is no path.
+	public ArrayList<Link> shortestPathAStar(Node start, Node finish) {
+		return shortestPath(Algorithm.ASTAR, getSearch(Algorithm.ASTAR), start, finish);
+	}
+	
+	// A* search guided by landmark tables (see Landmarks.java), which
+	// works whatever the link weights are.  The tables are built on first
+	// use and kept until the network is edited.  Returns null if there is
+	// no path.
+	public ArrayList<Link> shortestPathLandmarks(Node start, Node finish) {
+		return shortestPath(Algorithm.LANDMARKS, getSearch(Algorithm.LANDMARKS), start, finish);
+	}
+	
+	// Provide the landmark tables for the network as it is now (built on
+	// first use, see above)
+	public Landmarks getLandmarks() {
+		if (landmarks == null)
+			landmarks = new Landmarks(getGraph(), Landmarks.DEFAULT_COUNT);
+		return landmarks;
+	}
+	
+	// Use landmark tables read back in for the network as it is now (see
+	// Landmarks.read)
+	public void setLandmarks(Landmarks tables) {
+		if (tables.getGraph() != getGraph())
+			throw new IllegalArgumentException("Landmark tables were built for a different graph");
+		landmarks = tables;
+		landmarkSearch = null;
+	}
+	
+	// Bidirectional Dijkstra search for the shortest path between the
+	// "start" and "finish" nodes: one search grows from each end until
+	// they meet (see BidirectionalDijkstra.java).  Returns null if there
+	// is no path.
+	public ArrayList<Link> shortestPathBidirectional(Node start, Node finish) {
+		return shortestPath(Algorithm.BIDIRECTIONAL, getSearch(Algorithm.BIDIRECTIONAL), start, finish);
+	}
+	
+	// Contraction hierarchy search for the shortest path between the "start"
+	// and "finish" nodes (see ContractionHierarchy.java).  The hierarchy is
+	// built on first use and kept until the network is edited, so only
+	// repeated searches on an unchanged network pay off.  Returns null if
+	// there is no path.
+	public ArrayList<Link> shortestPathContraction(Node start, Node finish) {
+		return shortestPath(Algorithm.CONTRACTION, getSearch(Algorithm.CONTRACTION), start, finish);
+	}
+	
+	// Provide the contraction hierarchy for the network as it is now
+	// (built on first use, see above)
+	public ContractionHierarchy getHierarchy() {
+		if (hierarchy == null)
+			hierarchy = new ContractionHierarchy(getGraph());
+		return hierarchy;
+	}
+	
+	// Use a contraction hierarchy built elsewhere (for example, on another
+	// thread) for the network as it is now
+	public void setHierarchy(ContractionHierarchy h) {
+		if (h.getGraph() != getGraph())
+			throw new IllegalArgumentException("Contraction hierarchy was built for a different graph");
+		hierarchy = h;
+		hierarchySearch = null;
+	}
+	
+	// Shortest distances from the "start" node to every node of the network
+	// at once, with the tree of shortest paths (see ShortestPathTree.java).
+	// Returns null if the node is not in the network.
+	public ShortestPathTree shortestPathTree(Node start) {
+		if (dijkstra == null)
+			dijkstra = new Dijkstra(getGraph());
+		int source = dijkstra.getGraph().indexOf(start);
+		if (source < 0)
+			return null;
+		ShortestPathTree tree = dijkstra.searchAll(source);
+		nodesExpanded = dijkstra.getNodesExpanded();
+		return tree;
+	}
+	
+	// Run one of the graph searches between two nodes of this network
+	// and measure it (nodes in different components are turned down
+	// without searching)
+	private ArrayList<Link> shortestPath(Algorithm algorithm, PathSearch search, Node start, Node finish) {
+		Graph g = search.getGraph();
+		int source = g.indexOf(start);
+		int target = g.indexOf(finish);
+		if (source < 0 || target < 0)
+			return null;
+		boolean connected = getComponents().connected(source, target);
+		lastStats = SearchStats.measure(algorithm, search, source, target, connected);
+		nodesExpanded = lastStats.getNodesExpanded();
+		return connected ? search.getPath() : null;
 	}
-}
\ No newline at end of file
+}
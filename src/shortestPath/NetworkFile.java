@@ -0,0 +1,246 @@
+package shortestPath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Saving and loading networks in a compact binary file.  The file holds the
+// active part of a network in the same layout as a Graph (see Graph.java),
+// so loading only copies whole arrays out of the file: the file is mapped
+// into memory (FileChannel.map) and each block is copied in one call, with
+// no text to parse and no objects made per node or link.
+//
+// Layout (numbers are little-endian, the byte order of almost every
+// processor, so blocks are copied without swapping bytes):
+//    header:       int MAGIC, int VERSION, int flags, int numNodes, int numSlots
+//    nodes:        int x[numNodes], int y[numNodes]
+//    links (CSR):  int offsets[numNodes+1], int targets[numSlots],
+//                  double weights[numSlots]
+//    landmarks:    landmark tables as written by Landmarks.write (which
+//                  uses DataOutput, so big-endian), only if the
+//                  HAS_LANDMARKS flag is set
+// Every link fills two slots, one at each end (numSlots = 2 x links).
+//
+// The version number goes up whenever the layout changes; files with a
+// version this code doesn't know are refused rather than misread.
+public class NetworkFile {
+
+	// Marks the start of a network file ("SPNW")
+	private static final int MAGIC = 0x53504E57;
+
+	// Layout version written by this code
+	public static final int VERSION = 1;
+
+	// Flags in the header
+	private static final int HAS_LANDMARKS = 1;
+
+	// Bytes in the header
+	private static final int HEADER_SIZE = 5*4;
+
+	// Bytes written at a time when saving
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// Only used through its static methods
+	private NetworkFile() {}
+
+	// SAVING
+
+	// Save the active part of a network (nodes without active links are
+	// kept too, so the drawing comes back as it was), with its landmark
+	// tables if they have been built (see Network.isPrepared)
+	public static void save(Network network, Path path) throws IOException {
+		Landmarks landmarks = network.isPrepared(Algorithm.LANDMARKS) ? network.getLandmarks() : null;
+		save(network.getGraph(), landmarks, path);
+	}
+
+	// Save a graph, with its landmark tables if not null (see Landmarks.java)
+	public static void save(Graph graph, Landmarks landmarks, Path path) throws IOException {
+		if (landmarks != null && landmarks.getGraph() != graph)
+			throw new IllegalArgumentException("Landmark tables were built for a different graph");
+		int n = graph.numNodes;
+		int numSlots = graph.targets.length;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt((landmarks != null) ? HAS_LANDMARKS : 0);
+			buffer.putInt(n);
+			buffer.putInt(numSlots);
+			write(channel, buffer, graph.xs, n);
+			write(channel, buffer, graph.ys, n);
+			write(channel, buffer, graph.offsets, n+1);
+			write(channel, buffer, graph.targets, numSlots);
+			for (int slot=0; slot<numSlots; slot++) {
+				if (buffer.remaining() < 8)
+					flush(channel, buffer);
+				buffer.putDouble(graph.weights[slot]);
+			}
+			flush(channel, buffer);
+			if (landmarks != null) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+				landmarks.write(out);
+				out.flush();
+			}
+		}
+	}
+
+	// Add an array to the file, a buffer at a time
+	private static void write(FileChannel channel, ByteBuffer buffer, int[] values, int count) throws IOException {
+		for (int i=0; i<count; i++) {
+			if (buffer.remaining() < 4)
+				flush(channel, buffer);
+			buffer.putInt(values[i]);
+		}
+	}
+
+	// Write out what is in the buffer and empty it
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	// LOADING
+
+	// Load a file as a Graph, for searching without a window (see
+	// QueryEngine.java).  Nodes and links are only made as search
+	// results need them.
+	public static Graph loadGraph(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < HEADER_SIZE)
+				throw new IOException(path + " is too short to be a network file");
+
+			// Header
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			int n = readHeader(header, path);
+			int numSlots = header.getInt();
+			if (numSlots < 0 || numSlots % 2 != 0)
+				throw new IOException(path + ": bad number of link slots " + numSlots);
+			long blockSize = 4L*(2L*n + n + 1 + numSlots) + 8L*numSlots;
+			if (HEADER_SIZE + blockSize > size)
+				throw new IOException(path + " is cut short");
+			if (blockSize > Integer.MAX_VALUE)
+				throw new IOException(path + " is too large to load");
+
+			// Node and link blocks, copied out of the mapped file an
+			// array at a time
+			ByteBuffer blocks = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, blockSize).order(ByteOrder.LITTLE_ENDIAN);
+			int[] xs = new int[n];
+			int[] ys = new int[n];
+			int[] offsets = new int[n+1];
+			int[] targets = new int[numSlots];
+			double[] weights = new double[numSlots];
+			blocks.asIntBuffer().get(xs);
+			blocks.position(blocks.position() + 4*n);
+			blocks.asIntBuffer().get(ys);
+			blocks.position(blocks.position() + 4*n);
+			blocks.asIntBuffer().get(offsets);
+			blocks.position(blocks.position() + 4*(n+1));
+			blocks.asIntBuffer().get(targets);
+			blocks.position(blocks.position() + 4*numSlots);
+			blocks.asDoubleBuffer().get(weights);
+			checkLinks(offsets, targets, weights, path);
+			return new Graph(xs, ys, offsets, targets, weights);
+		}
+	}
+
+	// Load the landmark tables saved with a graph (null if the file has
+	// none).  The graph must be the one loaded from the same file.
+	public static Landmarks loadLandmarks(Path path, Graph graph) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			int n = readHeader(header, path);
+			boolean hasLandmarks = (header.getInt(8) & HAS_LANDMARKS) != 0;
+			int numSlots = header.getInt();
+			if (!hasLandmarks)
+				return null;
+			channel.position(HEADER_SIZE + 4L*(2L*n + n + 1 + numSlots) + 8L*numSlots);
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			return Landmarks.read(in, graph);
+		}
+	}
+
+	// Load a file as a network that can be shown and edited in the window
+	// (in sparse mode, see Network.java).  Node numbers are kept, so
+	// landmark tables saved with the network are used as they are.
+	public static Network load(Path path) throws IOException {
+		Network network = new Network(loadGraph(path));
+		Landmarks landmarks = loadLandmarks(path, network.getGraph());
+		if (landmarks != null)
+			network.setLandmarks(landmarks);
+		return network;
+	}
+
+	// Check the magic number and version, and return the number of nodes
+	// (leaves the buffer at the number of slots)
+	private static int readHeader(ByteBuffer header, Path path) throws IOException {
+		if (header.getInt() != MAGIC)
+			throw new IOException(path + " is not a network file");
+		int version = header.getInt();
+		if (version != VERSION)
+			throw new IOException(path + " is a version " + version + " network file; only version " + VERSION + " can be read");
+		header.getInt();	// flags
+		int n = header.getInt();
+		if (n < 0)
+			throw new IOException(path + ": bad number of nodes " + n);
+		return n;
+	}
+
+	// Make sure the link block describes a proper graph, so that searches
+	// can trust it: every link joins two different nodes, at most once, and
+	// fills a slot at each end with the same weight (see Graph.java).  To
+	// find the slot at the other end, each node's slots are sorted by the
+	// node they lead to (as target << 32 | slot, so one long array does)
+	// and binary searched.
+	private static void checkLinks(int[] offsets, int[] targets, double[] weights, Path path) throws IOException {
+		int n = offsets.length - 1;
+		if (offsets[0] != 0 || offsets[n] != targets.length)
+			throw new IOException(path + ": link offsets don't match the number of slots");
+		for (int i=0; i<n; i++) {
+			if (offsets[i+1] < offsets[i])
+				throw new IOException(path + ": link offsets out of order at node " + i);
+		}
+		long[] sorted = new long[targets.length];
+		for (int node=0; node<n; node++) {
+			for (int slot = offsets[node]; slot < offsets[node+1]; slot++) {
+				if (targets[slot] < 0 || targets[slot] >= n)
+					throw new IOException(path + ": link slot " + slot + " leads to missing node " + targets[slot]);
+				if (targets[slot] == node)
+					throw new IOException(path + ": link slot " + slot + " joins node " + node + " to itself");
+				if (!(weights[slot] >= 0) || Double.isInfinite(weights[slot]))
+					throw new IOException(path + ": link slot " + slot + " has bad weight " + weights[slot]);
+				sorted[slot] = ((long) targets[slot] << 32) | slot;
+			}
+			Arrays.sort(sorted, offsets[node], offsets[node+1]);
+			for (int i = offsets[node] + 1; i < offsets[node+1]; i++) {
+				if ((sorted[i] >>> 32) == (sorted[i-1] >>> 32))
+					throw new IOException(path + ": node " + node + " is linked to node " + (sorted[i] >>> 32) + " more than once");
+			}
+		}
+		for (int node=0; node<n; node++) {
+			for (int slot = offsets[node]; slot < offsets[node+1]; slot++) {
+				int other = targets[slot];
+				int back = Arrays.binarySearch(sorted, offsets[other], offsets[other+1], (long) node << 32);
+				if (back < 0)
+					back = -back - 1;
+				if (back == offsets[other+1] || (sorted[back] >>> 32) != node)
+					throw new IOException(path + ": link slot " + slot + " has no slot back from node " + other);
+				if (weights[(int) sorted[back]] != weights[slot])
+					throw new IOException(path + ": link slot " + slot + " weighs " + weights[slot]
+							+ " but its slot back from node " + other + " weighs " + weights[(int) sorted[back]]);
+			}
+		}
+	}
+}
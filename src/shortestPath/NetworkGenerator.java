@@ -0,0 +1,280 @@
+package shortestPath;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+// Random networks of any size, for trying out and timing the searches.
+// Each kind of network is made straight from the links it needs, in time
+// and memory in proportion to the number of nodes and links (no link is
+// ever made between every pair of nodes and then thrown away), so large
+// networks take seconds, not hours.  The same randomizer seed always gives
+// the same network.
+//
+// Three kinds are made, all with nodes on the canvas (see Display.java)
+// and links weighing their lengths:
+//    random:   each pair of nodes is linked with the same chance, so nodes
+//              have about "linksPerNode" links each, to anywhere on the
+//              canvas (Erdos-Renyi graphs; the pairs between one link and
+//              the next are skipped over in a single step, see randomGraph)
+//    nearest:  each node is linked to its k nearest nodes, which gives
+//              short links to nearby nodes like a network of roads
+//    grid:     streets on a grid, nodes nudged off their corners a little,
+//              with some blocks missing
+// Nodes left without any links are dropped, and the rest renumbered.
+public class NetworkGenerator {
+
+	// Canvas area nodes are placed in (x/y between 25 and 474)
+	private static final int CANVAS_MIN = 25;
+	private static final int CANVAS_SIZE = 450;
+
+	// Only used through its static methods
+	private NetworkGenerator() {}
+
+	// Random network as made by Network's random constructor: between
+	// minNodes and maxNodes-1 nodes with about linksPerNode links each
+	public static Graph randomGraph(int minNodes, int maxNodes, int linksPerNode, Random rand) {
+		int numNodes = rand.nextInt(maxNodes-minNodes)+minNodes;
+		return randomGraph(numNodes, linksPerNode, rand);
+	}
+
+	// Random network of numNodes nodes, each pair linked with the same
+	// chance, so that nodes have about linksPerNode links on average
+	public static Graph randomGraph(int numNodes, double linksPerNode, Random rand) {
+		int[] xs = new int[numNodes];
+		int[] ys = new int[numNodes];
+		placeNodes(xs, ys, rand);
+		LinkList links = new LinkList(xs, ys, (int) Math.min(Integer.MAX_VALUE - 8, (long) (numNodes*linksPerNode/2*1.1) + 16));
+
+		// Go through the pairs (v, w) with w < v in order, jumping straight
+		// to the next linked pair: the number of pairs skipped before the
+		// next link follows a geometric distribution, so it can be drawn
+		// with one random number.  (Batagelj and Brandes, "Efficient
+		// generation of large random networks", 2005.)
+		double chance = (numNodes > 1) ? Math.min(1.0, linksPerNode/(numNodes - 1)) : 0;
+		if (chance > 0) {
+			double logMiss = Math.log(1 - chance);
+			int v = 1;
+			long w = -1;
+			while (v < numNodes) {
+				if (chance >= 1)
+					w++;
+				else
+					w += 1 + (long) Math.floor(Math.log(1 - rand.nextDouble())/logMiss);
+				while (w >= v && v < numNodes) {
+					w -= v;
+					v++;
+				}
+				if (v < numNodes)
+					links.add(v, (int) w);
+			}
+		}
+		return links.toGraph();
+	}
+
+	// Network of numNodes random nodes, each linked to its k nearest nodes
+	public static Graph nearestGraph(int numNodes, int k, Random rand) {
+		int[] xs = new int[numNodes];
+		int[] ys = new int[numNodes];
+		placeNodes(xs, ys, rand);
+		LinkList links = new LinkList(xs, ys, numNodes*k);
+		k = Math.min(k, numNodes - 1);
+		if (k <= 0)
+			return links.toGraph();
+
+		// File nodes by grid cell (about two nodes to a cell), so that the
+		// nearest nodes are found by looking at the cells around a node,
+		// nearest cells first
+		int cellsPerSide = Math.max(1, (int) Math.sqrt(numNodes/2.0));
+		double cellSize = ((double) CANVAS_SIZE)/cellsPerSide;
+		int[] cellOf = new int[numNodes];
+		int[] cellStart = new int[cellsPerSide*cellsPerSide + 1];
+		for (int i=0; i<numNodes; i++) {
+			int column = Math.min(cellsPerSide - 1, (int) ((xs[i] - CANVAS_MIN)/cellSize));
+			int row = Math.min(cellsPerSide - 1, (int) ((ys[i] - CANVAS_MIN)/cellSize));
+			cellOf[i] = row*cellsPerSide + column;
+			cellStart[cellOf[i]+1]++;
+		}
+		for (int c=0; c<cellsPerSide*cellsPerSide; c++)
+			cellStart[c+1] += cellStart[c];
+		int[] cellNodes = new int[numNodes];
+		int[] next = Arrays.copyOf(cellStart, cellsPerSide*cellsPerSide);
+		for (int i=0; i<numNodes; i++)
+			cellNodes[next[cellOf[i]]++] = i;
+
+		// Nearest nodes found so far, closest first
+		int[] nearest = new int[k];
+		double[] nearestDistance = new double[k];
+		for (int i=0; i<numNodes; i++) {
+			int found = 0;
+			int column = cellOf[i] % cellsPerSide;
+			int row = cellOf[i] / cellsPerSide;
+
+			// Look at the ring of cells "ring" steps away from the node's
+			// cell.  Every node in a farther ring is at least ring cells
+			// away, so once k nodes closer than that are found, stop.
+			for (int ring=0; ring<cellsPerSide; ring++) {
+				if (found == k && nearestDistance[k-1] <= (ring - 1)*cellSize)
+					break;
+				for (int r = row - ring; r <= row + ring; r++) {
+					if (r < 0 || r >= cellsPerSide)
+						continue;
+					boolean edgeRow = (r == row - ring) || (r == row + ring);
+					for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2*ring) {
+						if (c >= 0 && c < cellsPerSide) {
+							int cell = r*cellsPerSide + c;
+							for (int j = cellStart[cell]; j < cellStart[cell+1]; j++) {
+								int other = cellNodes[j];
+								if (other == i)
+									continue;
+								double d = Math.hypot(xs[other] - xs[i], ys[other] - ys[i]);
+								if (found == k && d >= nearestDistance[k-1])
+									continue;
+
+								// Insert in order, dropping the farthest if full
+								int place = (found < k) ? found++ : k - 1;
+								while (place > 0 && nearestDistance[place-1] > d) {
+									nearest[place] = nearest[place-1];
+									nearestDistance[place] = nearestDistance[place-1];
+									place--;
+								}
+								nearest[place] = other;
+								nearestDistance[place] = d;
+							}
+						}
+					}
+				}
+			}
+			for (int j=0; j<found; j++)
+				links.add(i, nearest[j]);
+		}
+		return links.toGraph();
+	}
+
+	// Network of streets on a grid of rows x columns corners, with each
+	// street between neighbouring corners kept with chance "keep"
+	public static Graph gridGraph(int rows, int columns, double keep, Random rand) {
+		int numNodes = rows*columns;
+		int[] xs = new int[numNodes];
+		int[] ys = new int[numNodes];
+		double spacingX = (columns > 1) ? ((double) CANVAS_SIZE - 1)/(columns - 1) : 0;
+		double spacingY = (rows > 1) ? ((double) CANVAS_SIZE - 1)/(rows - 1) : 0;
+		for (int r=0; r<rows; r++) {
+			for (int c=0; c<columns; c++) {
+				// Nudge each corner by up to a quarter of the spacing
+				double x = c*spacingX + (rand.nextDouble() - 0.5)*spacingX/2;
+				double y = r*spacingY + (rand.nextDouble() - 0.5)*spacingY/2;
+				xs[r*columns + c] = CANVAS_MIN + (int) Math.round(Math.max(0, Math.min(CANVAS_SIZE - 1, x)));
+				ys[r*columns + c] = CANVAS_MIN + (int) Math.round(Math.max(0, Math.min(CANVAS_SIZE - 1, y)));
+			}
+		}
+		LinkList links = new LinkList(xs, ys, 2*numNodes);
+		for (int r=0; r<rows; r++) {
+			for (int c=0; c<columns; c++) {
+				int node = r*columns + c;
+				if (c + 1 < columns && rand.nextDouble() < keep)
+					links.add(node, node + 1);
+				if (r + 1 < rows && rand.nextDouble() < keep)
+					links.add(node, node + columns);
+			}
+		}
+		return links.toGraph();
+	}
+
+	// Command line generator writing a network file (see NetworkFile.java),
+	// for example to time searches on the same network again and again:
+	//    NetworkGenerator [-landmarks] random numNodes linksPerNode seed output.spn
+	//    NetworkGenerator [-landmarks] nearest numNodes k seed output.spn
+	//    NetworkGenerator [-landmarks] grid rows columns keep seed output.spn
+	// With -landmarks, landmark tables (see Landmarks.java) are built and
+	// saved with the network, so searches that use them can start at once.
+	public static void main(String args[]) throws Exception {
+		boolean withLandmarks = (args.length > 0) && args[0].equals("-landmarks");
+		if (withLandmarks)
+			args = Arrays.copyOfRange(args, 1, args.length);
+		if (args.length < 5 || (args[0].equals("grid") && args.length < 6))
+			throw new Exception("Usage: NetworkGenerator [-landmarks] random numNodes linksPerNode seed output.spn\n"
+					+ "   or: NetworkGenerator [-landmarks] nearest numNodes k seed output.spn\n"
+					+ "   or: NetworkGenerator [-landmarks] grid rows columns keep seed output.spn");
+		long startTime = System.nanoTime();
+		Graph graph;
+		if (args[0].equals("random"))
+			graph = randomGraph(Integer.parseInt(args[1]), Double.parseDouble(args[2]), new Random(Long.parseLong(args[3])));
+		else if (args[0].equals("nearest"))
+			graph = nearestGraph(Integer.parseInt(args[1]), Integer.parseInt(args[2]), new Random(Long.parseLong(args[3])));
+		else if (args[0].equals("grid"))
+			graph = gridGraph(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Double.parseDouble(args[3]),
+					new Random(Long.parseLong(args[4])));
+		else
+			throw new Exception("Unknown kind of network: " + args[0]);
+		Landmarks landmarks = withLandmarks ? new Landmarks(graph, Landmarks.DEFAULT_COUNT) : null;
+		NetworkFile.save(graph, landmarks, Paths.get(args[args.length-1]));
+		System.err.printf("%d nodes, %d links, generated in %.1f ms%n",
+				graph.getNumNodes(), graph.getNumLinks(), (System.nanoTime() - startTime)/1e6);
+	}
+
+	// Put nodes at random places on the canvas
+	private static void placeNodes(int[] xs, int[] ys, Random rand) {
+		for (int i=0; i<xs.length; i++) {
+			xs[i] = rand.nextInt(CANVAS_SIZE) + CANVAS_MIN;
+			ys[i] = rand.nextInt(CANVAS_SIZE) + CANVAS_MIN;
+		}
+	}
+
+	// Links collected in growing arrays, then made into a graph without
+	// the nodes left unlinked
+	private static class LinkList {
+
+		private final int[] xs;
+		private final int[] ys;
+		private int[] from;
+		private int[] to;
+		private int size = 0;
+
+		LinkList(int[] xArray, int[] yArray, int capacity) {
+			xs = xArray;
+			ys = yArray;
+			from = new int[Math.max(16, capacity)];
+			to = new int[from.length];
+		}
+
+		void add(int a, int b) {
+			if (size == from.length) {
+				from = Arrays.copyOf(from, size*2);
+				to = Arrays.copyOf(to, size*2);
+			}
+			from[size] = a;
+			to[size] = b;
+			size++;
+		}
+
+		Graph toGraph() {
+			// Renumber the nodes that have links, in their original order
+			int[] number = new int[xs.length];
+			for (int i=0; i<size; i++) {
+				number[from[i]] = 1;
+				number[to[i]] = 1;
+			}
+			int numNodes = 0;
+			for (int v=0; v<xs.length; v++)
+				number[v] = (number[v] != 0) ? numNodes++ : -1;
+			int[] keptX = new int[numNodes];
+			int[] keptY = new int[numNodes];
+			for (int v=0; v<xs.length; v++) {
+				if (number[v] >= 0) {
+					keptX[number[v]] = xs[v];
+					keptY[number[v]] = ys[v];
+				}
+			}
+
+			// Links weigh their lengths
+			double[] weights = new double[size];
+			for (int i=0; i<size; i++) {
+				weights[i] = Math.hypot(xs[from[i]] - xs[to[i]], ys[from[i]] - ys[to[i]]);
+				from[i] = number[from[i]];
+				to[i] = number[to[i]];
+			}
+			return Graph.fromLinks(keptX, keptY, from, to, weights, size);
+		}
+	}
+}
@@ -0,0 +1,655 @@
+package shortestPath;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+// Reads networks made elsewhere (road maps and the like) into a Graph.
+// Three kinds of input are understood:
+//    edge lists:  one link per line, "from to [weight]", separated by
+//                 spaces, tabs or commas (lines starting with # or % and
+//                 a header line are skipped, see readEdgeList)
+//    CSV pairs:   a node file, "id,x,y", and an edge list as above
+//    GeoJSON:     a FeatureCollection of Point features (nodes, named by
+//                 an "id" property) and LineString or MultiLineString
+//                 features (links, joining the named nodes given by
+//                 "from"/"to" or "source"/"target" properties, or else
+//                 the points at either end of the line)
+//
+// Input is read a line (or one GeoJSON feature) at a time, so only the
+// graph being built is held in memory, never the whole file.  Node names
+// can be anything and are numbered 0, 1, 2... in the order they are first
+// seen.  Only links that actually appear are stored, in plain growing
+// arrays, so nothing here costs more than the size of the graph (unlike
+// Network.addNode, which makes a link to every other node).
+//
+// Links weigh what the input says, or else the straight-line distance in
+// the input's own coordinates, or 1 if the nodes have no coordinates.
+// Coordinates are then scaled to fit the canvas (see Display.java) for
+// viewing; nodes without coordinates are laid out on a grid.  Repeated
+// links and links from a node to itself are dropped.
+public class NetworkImporter {
+
+	// Canvas area nodes are scaled into (same as the random networks)
+	private static final int CANVAS_MIN = 25;
+	private static final int CANVAS_MAX = 475;
+
+	// Column names that mark the first line of an edge list as a header
+	private static final HashSet<String> COLUMN_NAMES = new HashSet<String>(Arrays.asList(
+			"from", "to", "source", "target", "weight", "length", "cost"));
+
+	// Node numbers by name
+	private final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+
+	// Node coordinates in the input's own units (NaN if not known)
+	private double[] xs = new double[1024];
+	private double[] ys = new double[1024];
+	private int numNodes = 0;
+
+	// Links as read (weight NaN if not given)
+	private int[] from = new int[1024];
+	private int[] to = new int[1024];
+	private double[] weights = new double[1024];
+	private int numLinks = 0;
+
+	// Does y grow upward in the input (true for maps, whose latitude grows
+	// northward, while canvas y grows downward)?
+	private boolean flipY = false;
+
+	// Start with nothing read
+	public NetworkImporter() {}
+
+	// "GET" METHODS
+
+	// Number of nodes read so far
+	public int getNumNodes() {
+		return numNodes;
+	}
+
+	// Number of links read so far (before repeats are dropped)
+	public int getNumLinks() {
+		return numLinks;
+	}
+
+	// READING
+
+	// Read an edge list ("from to [weight]" per line).  The first line is
+	// a header, and skipped, if it names the columns ("source,target",
+	// "from to weight" and so on) or has a word for a weight; or if it has
+	// words for its nodes where the next line has numbers.
+	public void readEdgeList(Reader input) throws IOException {
+		BufferedReader in = new BufferedReader(input);
+		String line;
+		int lineNumber = 0;
+		boolean first = true;
+		String[] maybeHeader = null;	// first line, until the next shows what it is
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			String[] parts = split(line);
+			if (parts == null)
+				continue;
+			if (first) {
+				first = false;
+				if (isHeader(parts))
+					continue;
+				if (parts.length >= 2 && !(isNumber(parts[0]) && isNumber(parts[1]))) {
+					maybeHeader = parts;
+					continue;
+				}
+			}
+			else if (maybeHeader != null) {
+				if (parts.length < 2 || !(isNumber(parts[0]) && isNumber(parts[1])))
+					readLink(maybeHeader, 1);
+				maybeHeader = null;
+			}
+			readLink(parts, lineNumber);
+		}
+		if (maybeHeader != null)
+			readLink(maybeHeader, 1);
+	}
+
+	// Take one edge list line as a link
+	private void readLink(String[] parts, int lineNumber) throws IOException {
+		if (parts.length < 2)
+			throw new IOException("Line " + lineNumber + ": expected \"from to [weight]\"");
+		double weight = Double.NaN;
+		if (parts.length > 2) {
+			weight = parseNumber(parts[2]);
+			if (Double.isNaN(weight))
+				throw new IOException("Line " + lineNumber + ": bad weight \"" + parts[2] + "\"");
+		}
+		addLink(node(parts[0]), node(parts[1]), weight);
+	}
+
+	// Is an edge list's first line a header: a column name, or a word
+	// where the weight goes?
+	private static boolean isHeader(String[] parts) {
+		for (String part : parts) {
+			if (COLUMN_NAMES.contains(part.toLowerCase()))
+				return true;
+		}
+		return (parts.length > 2) && !isNumber(parts[2]);
+	}
+
+	// Read a node file ("id x y" per line)
+	public void readNodes(Reader input) throws IOException {
+		BufferedReader in = new BufferedReader(input);
+		String line;
+		int lineNumber = 0;
+		boolean first = true;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			String[] parts = split(line);
+			if (parts == null)
+				continue;
+			boolean header = first;
+			first = false;
+			double x = (parts.length > 2) ? parseNumber(parts[1]) : Double.NaN;
+			double y = (parts.length > 2) ? parseNumber(parts[2]) : Double.NaN;
+			if (Double.isNaN(x) || Double.isNaN(y)) {
+				if (header)
+					continue;
+				throw new IOException("Line " + lineNumber + ": expected \"id x y\"");
+			}
+			setPosition(node(parts[0]), x, y);
+		}
+	}
+
+	// Read a GeoJSON FeatureCollection, one feature at a time
+	public void readGeoJson(Reader input) throws IOException {
+		flipY = true;
+		JsonReader json = new JsonReader(input);
+		json.expect('{');
+		if (json.endOf('}'))
+			return;
+		do {
+			String key = json.readString();
+			json.expect(':');
+			if (!key.equals("features")) {
+				json.readValue();
+				continue;
+			}
+			json.expect('[');
+			if (json.endOf(']'))
+				continue;
+			do {
+				readFeature(json.readValue());
+			} while (json.next(']'));
+		} while (json.next('}'));
+	}
+
+	// Take one GeoJSON feature (already read in as maps and lists)
+	private void readFeature(Object value) throws IOException {
+		Map<?, ?> feature = asMap(value, "feature");
+		Map<?, ?> properties = (feature.get("properties") instanceof Map) ? (Map<?, ?>) feature.get("properties") : new HashMap<String, Object>();
+		Map<?, ?> geometry = asMap(feature.get("geometry"), "geometry");
+		Object type = geometry.get("type");
+		Object coordinates = geometry.get("coordinates");
+		if ("Point".equals(type)) {
+			Object id = properties.get("id");
+			if (id == null)
+				id = feature.get("id");
+			double[] point = asPoint(coordinates);
+			int node = (id == null) ? pointNode(point) : node(name(id));
+			setPosition(node, point[0], point[1]);
+
+			// Lines without node names that end at this point join it
+			ids.putIfAbsent(pointName(point), node);
+		}
+		else if ("LineString".equals(type))
+			readLine(asList(coordinates, "coordinates"), properties);
+		else if ("MultiLineString".equals(type)) {
+			for (Object part : asList(coordinates, "coordinates"))
+				readLine(asList(part, "coordinates"), properties);
+		}
+		// Other shapes (polygons and so on) are not part of a network
+	}
+
+	// Take one GeoJSON line as a link
+	private void readLine(ArrayList<?> line, Map<?, ?> properties) throws IOException {
+		if (line.size() < 2)
+			return;
+		double[] first = asPoint(line.get(0));
+		double[] last = asPoint(line.get(line.size()-1));
+		Object fromName = properties.containsKey("from") ? properties.get("from") : properties.get("source");
+		Object toName = properties.containsKey("to") ? properties.get("to") : properties.get("target");
+		int begin;
+		int end;
+		if (fromName != null && toName != null) {
+			begin = node(name(fromName));
+			end = node(name(toName));
+			if (Double.isNaN(xs[begin]))
+				setPosition(begin, first[0], first[1]);
+			if (Double.isNaN(xs[end]))
+				setPosition(end, last[0], last[1]);
+		}
+		else {
+			begin = pointNode(first);
+			end = pointNode(last);
+		}
+
+		// Weight: given, or else the length along the line
+		double weight = Double.NaN;
+		Object given = properties.containsKey("weight") ? properties.get("weight") : properties.get("length");
+		if (given instanceof Double)
+			weight = (Double) given;
+		else {
+			weight = 0;
+			double[] previous = first;
+			for (int i=1; i<line.size(); i++) {
+				double[] point = asPoint(line.get(i));
+				weight += Math.hypot(point[0] - previous[0], point[1] - previous[1]);
+				previous = point;
+			}
+		}
+		addLink(begin, end, weight);
+	}
+
+	// BUILDING
+
+	// Build the graph read so far, scaled to the canvas
+	public Graph toGraph() {
+		// Canvas positions
+		int[] canvasX = new int[numNodes];
+		int[] canvasY = new int[numNodes];
+		layOut(canvasX, canvasY);
+
+		// Fill in the weights not given
+		double[] linkWeights = Arrays.copyOf(weights, numLinks);
+		for (int i=0; i<numLinks; i++) {
+			int a = from[i];
+			int b = to[i];
+			if (Double.isNaN(linkWeights[i])) {
+				if (Double.isNaN(xs[a]) || Double.isNaN(xs[b]))
+					linkWeights[i] = 1;
+				else
+					linkWeights[i] = Math.hypot(xs[a] - xs[b], ys[a] - ys[b]);
+			}
+		}
+		return Graph.fromLinks(canvasX, canvasY, from, to, linkWeights, numLinks);
+	}
+
+	// Build the graph read so far as a network for the window (in sparse
+	// mode, see Network.java)
+	public Network toNetwork() {
+		return new Network(toGraph());
+	}
+
+	// Is this the name of a file importFile can read (by its ending)?
+	public static boolean canImport(String fileName) {
+		String name = fileName.toLowerCase();
+		return name.endsWith(".geojson") || name.endsWith(".json") || name.endsWith(".txt")
+				|| name.endsWith(".edges") || name.endsWith(".csv");
+	}
+
+	// Read a file, picking the kind of input from the file name: ".geojson"
+	// or ".json" for GeoJSON, anything else for an edge list
+	public static Graph importFile(Path path) throws IOException {
+		NetworkImporter importer = new NetworkImporter();
+		try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String name = path.getFileName().toString().toLowerCase();
+			if (name.endsWith(".geojson") || name.endsWith(".json"))
+				importer.readGeoJson(in);
+			else
+				importer.readEdgeList(in);
+		}
+		return importer.toGraph();
+	}
+
+	// Command line converter to the network file format (see NetworkFile.java)
+	//    NetworkImporter [-landmarks] input output.spn
+	//    NetworkImporter [-landmarks] nodes.csv edges.csv output.spn
+	// With -landmarks, landmark tables (see Landmarks.java) are built and
+	// saved with the network.
+	public static void main(String args[]) throws Exception {
+		boolean withLandmarks = (args.length > 0) && args[0].equals("-landmarks");
+		if (withLandmarks)
+			args = Arrays.copyOfRange(args, 1, args.length);
+		Graph graph;
+		long startTime = System.nanoTime();
+		if (args.length == 2)
+			graph = importFile(Paths.get(args[0]));
+		else if (args.length == 3) {
+			NetworkImporter importer = new NetworkImporter();
+			try (Reader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+				importer.readNodes(in);
+			}
+			try (Reader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+				importer.readEdgeList(in);
+			}
+			graph = importer.toGraph();
+		}
+		else
+			throw new Exception("Usage: NetworkImporter [-landmarks] (edgeList | file.geojson | nodes.csv edges.csv) output.spn");
+		Landmarks landmarks = withLandmarks ? new Landmarks(graph, Landmarks.DEFAULT_COUNT) : null;
+		NetworkFile.save(graph, landmarks, Paths.get(args[args.length-1]));
+		System.err.printf("%d nodes, %d links, imported in %.1f ms%n",
+				graph.getNumNodes(), graph.getNumLinks(), (System.nanoTime() - startTime)/1e6);
+	}
+
+	// Work out canvas positions: nodes with coordinates are scaled to fit
+	// (keeping their proportions), the rest go on a grid
+	private void layOut(int[] canvasX, int[] canvasY) {
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		int missing = 0;
+		for (int i=0; i<numNodes; i++) {
+			if (Double.isNaN(xs[i])) {
+				missing++;
+				continue;
+			}
+			minX = Math.min(minX, xs[i]);
+			maxX = Math.max(maxX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		double span = Math.max(maxX - minX, maxY - minY);
+		double scale = (span > 0) ? (CANVAS_MAX - CANVAS_MIN)/span : 0;
+		int columns = (int) Math.ceil(Math.sqrt(missing));
+		double spacing = (columns > 1) ? ((double) (CANVAS_MAX - CANVAS_MIN))/(columns - 1) : 0;
+		int placed = 0;
+		for (int i=0; i<numNodes; i++) {
+			if (Double.isNaN(xs[i])) {
+				canvasX[i] = CANVAS_MIN + (int) Math.round((placed % columns)*spacing);
+				canvasY[i] = CANVAS_MIN + (int) Math.round((placed / columns)*spacing);
+				placed++;
+				continue;
+			}
+			canvasX[i] = CANVAS_MIN + (int) Math.round((xs[i] - minX)*scale);
+			double y = flipY ? (maxY - ys[i]) : (ys[i] - minY);
+			canvasY[i] = CANVAS_MIN + (int) Math.round(y*scale);
+		}
+	}
+
+	// Number of the node with a name, adding the node if it is new
+	private int node(String name) {
+		Integer id = ids.get(name);
+		if (id != null)
+			return id;
+		if (numNodes == xs.length) {
+			xs = Arrays.copyOf(xs, numNodes*2);
+			ys = Arrays.copyOf(ys, numNodes*2);
+		}
+		xs[numNodes] = Double.NaN;
+		ys[numNodes] = Double.NaN;
+		ids.put(name, numNodes);
+		return numNodes++;
+	}
+
+	// Number of the node at a point (GeoJSON lines without node names)
+	private int pointNode(double[] point) {
+		int node = node(pointName(point));
+		setPosition(node, point[0], point[1]);
+		return node;
+	}
+
+	private static String pointName(double[] point) {
+		return point[0] + "," + point[1];
+	}
+
+	private void setPosition(int node, double x, double y) {
+		xs[node] = x;
+		ys[node] = y;
+	}
+
+	private void addLink(int a, int b, double weight) throws IOException {
+		if (!Double.isNaN(weight) && (weight < 0 || Double.isInfinite(weight)))
+			throw new IOException("Bad link weight " + weight);
+		if (numLinks == from.length) {
+			from = Arrays.copyOf(from, numLinks*2);
+			to = Arrays.copyOf(to, numLinks*2);
+			weights = Arrays.copyOf(weights, numLinks*2);
+		}
+		from[numLinks] = a;
+		to[numLinks] = b;
+		weights[numLinks] = weight;
+		numLinks++;
+	}
+
+	// Split a line into fields, at spaces, tabs, commas and semicolons
+	// (null for blank and comment lines)
+	private static String[] split(String line) {
+		ArrayList<String> fields = new ArrayList<String>(3);
+		int length = line.length();
+		int i = 0;
+		while (i < length) {
+			while (i < length && isSeparator(line.charAt(i)))
+				i++;
+			int start = i;
+			while (i < length && !isSeparator(line.charAt(i)))
+				i++;
+			if (i > start)
+				fields.add(line.substring(start, i));
+		}
+		if (fields.isEmpty() || fields.get(0).startsWith("#") || fields.get(0).startsWith("%"))
+			return null;
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	private static boolean isSeparator(char c) {
+		return c == ' ' || c == '\t' || c == ',' || c == ';';
+	}
+
+	// Read a number, or NaN if the text isn't one
+	private static double parseNumber(String text) {
+		try {
+			return Double.parseDouble(text);
+		}
+		catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	private static boolean isNumber(String text) {
+		return !Double.isNaN(parseNumber(text));
+	}
+
+	// Node name from a GeoJSON value (numbers such as 7.0 are named "7")
+	private static String name(Object value) {
+		if (value instanceof Double) {
+			double d = (Double) value;
+			if (d == Math.rint(d) && Math.abs(d) < 1e15)
+				return Long.toString((long) d);
+		}
+		return String.valueOf(value);
+	}
+
+	private static Map<?, ?> asMap(Object value, String what) throws IOException {
+		if (!(value instanceof Map))
+			throw new IOException("GeoJSON " + what + " must be an object");
+		return (Map<?, ?>) value;
+	}
+
+	private static ArrayList<?> asList(Object value, String what) throws IOException {
+		if (!(value instanceof ArrayList))
+			throw new IOException("GeoJSON " + what + " must be an array");
+		return (ArrayList<?>) value;
+	}
+
+	private static double[] asPoint(Object value) throws IOException {
+		ArrayList<?> list = asList(value, "position");
+		if (list.size() < 2 || !(list.get(0) instanceof Double) || !(list.get(1) instanceof Double))
+			throw new IOException("GeoJSON position must have two numbers");
+		return new double[] {(Double) list.get(0), (Double) list.get(1)};
+	}
+
+	// A small pull reader for JSON text.  The top levels of a GeoJSON file
+	// are walked piece by piece (see readGeoJson), and only one feature at
+	// a time is read in whole, as maps (objects), lists (arrays), strings,
+	// doubles, booleans and nulls.
+	private static class JsonReader {
+
+		private final Reader in;
+		private int peeked = -2;	// next character, or -2 if not read yet
+
+		JsonReader(Reader input) {
+			in = input;
+		}
+
+		// Read a whole value
+		Object readValue() throws IOException {
+			int c = peek();
+			switch (c) {
+			case '{': {
+				read();
+				HashMap<String, Object> map = new HashMap<String, Object>();
+				if (endOf('}'))
+					return map;
+				do {
+					String key = readString();
+					expect(':');
+					map.put(key, readValue());
+				} while (next('}'));
+				return map;
+			}
+			case '[': {
+				read();
+				ArrayList<Object> list = new ArrayList<Object>();
+				if (endOf(']'))
+					return list;
+				do {
+					list.add(readValue());
+				} while (next(']'));
+				return list;
+			}
+			case '"':
+				return readString();
+			case 't':
+				readWord("true");
+				return Boolean.TRUE;
+			case 'f':
+				readWord("false");
+				return Boolean.FALSE;
+			case 'n':
+				readWord("null");
+				return null;
+			default:
+				return readNumber();
+			}
+		}
+
+		// Read a string value
+		String readString() throws IOException {
+			expect('"');
+			StringBuilder text = new StringBuilder();
+			while (true) {
+				int c = in.read();
+				if (c < 0)
+					throw new IOException("JSON text ends inside a string");
+				if (c == '"')
+					return text.toString();
+				if (c != '\\') {
+					text.append((char) c);
+					continue;
+				}
+				c = in.read();
+				switch (c) {
+				case 'b': text.append('\b'); break;
+				case 'f': text.append('\f'); break;
+				case 'n': text.append('\n'); break;
+				case 'r': text.append('\r'); break;
+				case 't': text.append('\t'); break;
+				case 'u':
+					char[] hex = new char[4];
+					for (int i=0; i<4; i++)
+						hex[i] = (char) in.read();
+					try {
+						text.append((char) Integer.parseInt(new String(hex), 16));
+					}
+					catch (NumberFormatException e) {
+						throw new IOException("Bad JSON escape \\u" + new String(hex));
+					}
+					break;
+				default:
+					if (c < 0)
+						throw new IOException("JSON text ends inside a string");
+					text.append((char) c);
+				}
+			}
+		}
+
+		// Read past a character (after any white space), which must be there
+		void expect(char expected) throws IOException {
+			int c = peek();
+			if (c != expected)
+				throw new IOException("Expected '" + expected + "' in JSON text but found " + describe(c));
+			peeked = -2;
+		}
+
+		// Is the next character (after white space) "close"?  If so, it is
+		// read.  (For empty objects and arrays.)
+		boolean endOf(char close) throws IOException {
+			if (peek() == close) {
+				peeked = -2;
+				return true;
+			}
+			return false;
+		}
+
+		// After an item in an object or array: true if a comma follows
+		// (more items), false if "close" follows (the end)
+		boolean next(char close) throws IOException {
+			int c = peek();
+			peeked = -2;
+			if (c == ',')
+				return true;
+			if (c == close)
+				return false;
+			throw new IOException("Expected ',' or '" + close + "' in JSON text but found " + describe(c));
+		}
+
+		private Double readNumber() throws IOException {
+			StringBuilder text = new StringBuilder();
+			int c = peek();
+			while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+				text.append((char) c);
+				c = in.read();
+			}
+			peeked = c;
+			try {
+				return Double.valueOf(text.toString());
+			}
+			catch (NumberFormatException e) {
+				throw new IOException("Unexpected " + describe(c) + " in JSON text");
+			}
+		}
+
+		private void readWord(String word) throws IOException {
+			for (int i=0; i<word.length(); i++) {
+				if (read() != word.charAt(i))
+					throw new IOException("Bad word in JSON text (expected " + word + ")");
+			}
+		}
+
+		// Next character after white space, without reading past it
+		private int peek() throws IOException {
+			if (peeked == -2)
+				peeked = in.read();
+			while (peeked == ' ' || peeked == '\t' || peeked == '\n' || peeked == '\r')
+				peeked = in.read();
+			return peeked;
+		}
+
+		// Next character (no white space skipping)
+		private int read() throws IOException {
+			int c = (peeked == -2) ? in.read() : peeked;
+			peeked = -2;
+			return c;
+		}
+
+		private static String describe(int c) {
+			return (c < 0) ? "the end" : "'" + (char) c + "'";
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package shortestPath;
+
+// Something that wants to hear about edits to a network as they happen
+// (see Network.addListener).  Each method is called after the change has
+// been made.
+public interface NetworkListener {
+
+	// A node was added to the network
+	void nodeAdded(Node node);
+
+	// A node (and every link touching it) was removed from the network
+	void nodeRemoved(Node node);
+
+	// A node moved, changing the length of every link touching it
+	void nodeMoved(Node node);
+
+	// A link was switched on or off, or its weight was changed
+	void linkChanged(Link link);
+}
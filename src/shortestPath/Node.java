@@ -5,23 +5,29 @@ import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 
 // This class represents a "node" (a point in the space of the drawing canvas)
 public class Node {
 	
-	// Position:
-	private Integer x;
-	private Integer y;
+	// Position (primitive ints: positions are read constantly while searching
+	// and hit testing, and boxed Integers would be unboxed on every read)
+	private int x;
+	private int y;
 	
-	// "Box" dimensions (for click area)
-	private Integer xmin;
-	private Integer xmax;
-	private Integer ymin;
-	private Integer ymax;
+	// "Box" dimensions (for click area), kept up to date whenever the
+	// node moves (see updateZone)
+	private int xmin;
+	private int xmax;
+	private int ymin;
+	private int ymax;
 	
 	// Diameter of circle graphic
-	private Integer diameter = 10;
+	private static final int diameter = 10;
+	
+	// Circle outline (same for every node)
+	private static final BasicStroke outline = new BasicStroke(2);
 	
 	// Node state (starts off as "Normal," other possibilities
 	// include "Start" and "Finish" modes
@@ -31,24 +37,34 @@ public class Node {
 	// All the links that connect this node to other nodes
 	private ArrayList<Link> links = new ArrayList<Link>();
 	
+	// Position of this node in the network's node list (-1 if not in a network).
+	// Used as the node's number in the network's Graph (see Graph.java)
+	private int index = -1;
+	
 	// New nodes must have position
-	public Node(Integer newX, Integer newY) {
+	public Node(int newX, int newY) {
 		x = newX;
 		y = newY;
+		updateZone();
 	}
 	
 	// "GET" METHODS
 	
 	// Provide horizontal position
-	public Integer getX() {
+	public int getX() {
 		return x;
 	}
 	
 	// Provide vertical position
-	public Integer getY() {
+	public int getY() {
 		return y;
 	}
 	
+	// Provide position of node in the network's node list
+	public int getIndex() {
+		return index;
+	}
+	
 	// Reveal state of node (see also NodeState.java)
 	public NodeState getState() {
 		return state;
@@ -66,6 +82,11 @@ public class Node {
 		return output;
 	}
 	
+	// Provide the click area
+	public Rectangle getBounds() {
+		return new Rectangle(xmin, ymin, xmax - xmin, ymax - ymin);
+	}
+	
 	// Is the cursor over the circle?
 	public boolean inZone(Point point) {
 		int xCheck = point.x;
@@ -76,13 +97,31 @@ public class Node {
 	// "SET" METHODS
 	
 	// Set horizontal position
-	public void setX(Integer xNew) {
-		x = xNew;
+	public void setX(int xNew) {
+		setPosition(xNew, y);
 	}
 	
 	// Set vertical position
-	public void setY(Integer yNew) {
+	public void setY(int yNew) {
+		setPosition(x, yNew);
+	}
+	
+	// Move node.  The click area and the geometry of every link touching
+	// the node (length and outline) are recalculated here, once, so they
+	// never have to be worked out while searching or drawing.  Nodes that
+	// belong to a network should be moved with Network.moveNode instead,
+	// so the network can update its own records.
+	public void setPosition(int xNew, int yNew) {
+		x = xNew;
 		y = yNew;
+		updateZone();
+		for (Link link : links)
+			link.updateGeometry();
+	}
+	
+	// Set position of node in the network's node list (network use only)
+	void setIndex(int indexNew) {
+		index = indexNew;
 	}
 	
 	// Change state of node (see also NodeState.java)
@@ -100,28 +139,30 @@ public class Node {
 		links.remove(link);
 	}
 	
-	// "DRAW" METHOD
-	
-	// Draw circle representation of node on canvas
-	public void draw(Graphics g) {
-		
-		// Create "box" around node (click area) using the diameter
-		// of the circle graphic representation
-		xmin = this.getX() - (int)(Math.floor(diameter/2));
-		ymin = this.getY() - (int)(Math.floor(diameter/2));
+	// Create "box" around node (click area) using the diameter
+	// of the circle graphic representation
+	private void updateZone() {
+		xmin = x - diameter/2;
+		ymin = y - diameter/2;
 		if (diameter%2 == 0) {
-			xmax = this.getX() + (diameter/2) - 1;
-			ymax = this.getY() + (diameter/2) - 1;
+			xmax = x + (diameter/2) - 1;
+			ymax = y + (diameter/2) - 1;
 		}
 		else {
-			xmax = this.getX() + (int)(Math.floor(diameter/2));
-			ymax = this.getY() + (int)(Math.floor(diameter/2));
+			xmax = x + diameter/2;
+			ymax = y + diameter/2;
 		}
+	}
+	
+	// "DRAW" METHOD
+	
+	// Draw circle representation of node on canvas
+	public void draw(Graphics g) {
 		
 		// Define circle color (different colors of the different states)
 		//  (see also NodeState.java)
 		Graphics2D g2 = (Graphics2D) g;
-		g2.setStroke(new BasicStroke(2));	// 2 pixel black circle outline
+		g2.setStroke(outline);	// 2 pixel black circle outline
 		switch (state) {
 		case NORMAL:
 			g2.setColor(Color.BLUE);
@@ -135,11 +176,9 @@ public class Node {
 		}
 		
 		// Actually draw circle on canvas (fillOval = interior colored circle, drawOval = black circle outline)
-		g2.fillOval(this.getX() - (int)(Math.floor(diameter/2)), this.getY() - (int)(Math.floor(diameter/2)), 
-				diameter, diameter);
+		g2.fillOval(x - diameter/2, y - diameter/2, diameter, diameter);
 		g2.setColor(Color.BLACK);
-		g2.drawOval(this.getX() - (int)(Math.floor(diameter/2)), this.getY() - (int)(Math.floor(diameter/2)), 
-				diameter, diameter);	// Must do outline after fill because then the outline will overlay the fill)
+		g2.drawOval(x - diameter/2, y - diameter/2, diameter, diameter);	// Must do outline after fill because then the outline will overlay the fill)
 	}
 
 }
@@ -0,0 +1,46 @@
+package shortestPath;
+
+import java.util.ArrayList;
+
+// Common face of the searches that run on a Graph (Dijkstra, A* and
+// bidirectional Dijkstra), so that callers can pick one and use it
+// without caring which it is.  A search object holds the working arrays
+// for one graph and is reused from one search to the next, so it must
+// only be used by one thread at a time.
+public interface PathSearch {
+
+	// Provide the graph being searched
+	Graph getGraph();
+
+	// Find the shortest distance from node "source" to node "target" (both
+	// are node numbers in the graph).  Returns infinity if there is no path.
+	double search(int source, int target);
+
+	// Links of the path found by the last search, from source to target,
+	// or null if there is no path
+	ArrayList<Link> getPath();
+
+	// Number of nodes expanded by the last search
+	int getNodesExpanded();
+
+	// Number of links looked at from the nodes expanded by the last search
+	long getEdgesRelaxed();
+
+	// Number of heap pushes, key decreases and polls in the last search
+	long getHeapOperations();
+
+	// Largest number of nodes waiting to be expanded at any one time
+	// during the last search
+	int getPeakFrontier();
+
+	// Limit the searches that follow to a budget of time and expansions,
+	// which can also be used to cancel them from another thread (null
+	// for no limit; see SearchBudget.java)
+	void setBudget(SearchBudget budget);
+
+	// Did the last search stop early, because its budget ran out or it
+	// was cancelled?  If so, search returned the length of the best path
+	// found by then (which may not be the shortest) and getPath gives
+	// that path, or there was none yet (infinity and null).
+	boolean isStopped();
+}
@@ -0,0 +1,246 @@
+package shortestPath;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Answers shortest path queries between any two nodes of a network without
+// any user interface: no START/FINISH node states and no AWT components are
+// involved, so one prepared Graph can serve a whole stream of queries.
+// Each thread that asks questions gets its own search object (and so its
+// own working arrays), made on the thread's first query and reused for
+// every query after that.
+//
+// A Graph never changes once built and the searches keep all of their
+// working state in their own arrays, never in the nodes or links, so any
+// number of threads can query the same engine at once.  solveAll spreads a
+// batch of queries over a fork/join pool to use every processor.
+public class QueryEngine {
+
+	// Number of queries below which a batch is no longer split up
+	private static final int BATCH_SPLIT = 64;
+
+	private final Graph graph;
+	private final Algorithm algorithm;
+
+	// One search object per thread (see PathSearch.java)
+	private final ThreadLocal<PathSearch> searches;
+
+	// Hierarchy shared by every thread's search (null unless the
+	// algorithm is CONTRACTION)
+	private final ContractionHierarchy hierarchy;
+
+	// Landmark tables shared by every thread's search (null unless the
+	// algorithm is LANDMARKS)
+	private final Landmarks landmarks;
+
+	// Which nodes are connected, so that queries between separate pieces
+	// of the graph are answered without searching (see ComponentIndex.java;
+	// it is built flattened, so threads only ever read it)
+	private final ComponentIndex components;
+
+	// Should queries count the bytes they allocate?  (Off by default: it
+	// costs two thread bean calls per query, see SearchStats.java.)
+	private volatile boolean countingBytes = false;
+
+	// Engine for a prepared graph, using the given kind of search
+	public QueryEngine(Graph g, Algorithm a) {
+		this(g, a, null);
+	}
+
+	// Engine for a prepared graph that uses landmark tables already built
+	// for it (for example saved with it, see NetworkFile.loadLandmarks)
+	// rather than building them again.  The tables are only used by the
+	// LANDMARKS algorithm; if null, they are built as usual.
+	public QueryEngine(Graph g, Algorithm a, Landmarks tables) {
+		if (tables != null && tables.getGraph() != g)
+			throw new IllegalArgumentException("Landmark tables were built for a different graph");
+		graph = g;
+		algorithm = a;
+		hierarchy = (a == Algorithm.CONTRACTION) ? new ContractionHierarchy(g) : null;
+		if (a != Algorithm.LANDMARKS)
+			landmarks = null;
+		else
+			landmarks = (tables != null) ? tables : new Landmarks(g, Landmarks.DEFAULT_COUNT);
+		components = new ComponentIndex(g);
+		SearchMetrics.of(a);	// registered now, not during the first query
+		searches = new ThreadLocal<PathSearch>() {
+			@Override
+			protected PathSearch initialValue() {
+				if (hierarchy != null)
+					return hierarchy.newSearch();
+				if (landmarks != null)
+					return new AStar(graph, landmarks);
+				return algorithm.newSearch(graph);
+			}
+		};
+	}
+
+	// Engine for the current state of a network (later edits to the
+	// network are not seen by the engine)
+	public QueryEngine(Network network, Algorithm a) {
+		this(network.getGraph(), a);
+	}
+
+	// "GET" METHODS
+
+	// Provide the graph being searched
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Provide the kind of search used
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	// Provide the contraction hierarchy built for the engine (null unless
+	// the algorithm is CONTRACTION)
+	public ContractionHierarchy getHierarchy() {
+		return hierarchy;
+	}
+
+	// Provide the landmark tables built or given for the engine (null
+	// unless the algorithm is LANDMARKS)
+	public Landmarks getLandmarks() {
+		return landmarks;
+	}
+
+	// Provide the index of which nodes are connected
+	public ComponentIndex getComponents() {
+		return components;
+	}
+
+	// Do queries count the bytes they allocate?
+	public boolean isCountingBytes() {
+		return countingBytes;
+	}
+
+	// Provide the running totals and latency histogram of this kind of
+	// search (shared with every other user of the same algorithm, see
+	// SearchMetrics.java)
+	public SearchMetrics getMetrics() {
+		return SearchMetrics.of(algorithm);
+	}
+
+	// "SET" METHODS
+
+	// Count the bytes each query allocates (see SearchStats.getAllocatedBytes)
+	// or not
+	public void setCountingBytes(boolean counting) {
+		countingBytes = counting;
+	}
+
+	// QUERIES
+
+	// Shortest distance between two nodes (node numbers in the graph),
+	// or infinity if they are not connected
+	public double distance(int source, int target) {
+		checkNode(source);
+		checkNode(target);
+		return query(source, target).getDistance();
+	}
+
+	// Shortest path between two nodes (node numbers in the graph), or null
+	// if they are not connected
+	public ArrayList<Link> path(int source, int target) {
+		checkNode(source);
+		checkNode(target);
+		if (!query(source, target).isConnected())
+			return null;
+		return searches.get().getPath();
+	}
+
+	// Path found by the last query made on this thread (null if none)
+	public ArrayList<Link> getLastPath() {
+		return searches.get().getPath();
+	}
+
+	// Number of nodes expanded by the last query made on this thread
+	public int getNodesExpanded() {
+		return searches.get().getNodesExpanded();
+	}
+
+	// Answer a batch of queries (sources[i] to targets[i]) in parallel on the
+	// common fork/join pool.  Returns the distances (infinity if no path).
+	public double[] distances(int[] sources, int[] targets) {
+		double[] output = new double[sources.length];
+		solveAll(sources, targets, output, null);
+		return output;
+	}
+
+	// Answer a batch of queries in parallel on the common fork/join pool,
+	// filling in the distance and (if numLinks is not null) the number of
+	// links of each path (0 if there is no path)
+	public void solveAll(int[] sources, int[] targets, double[] distances, int[] numLinks) {
+		solveAll(ForkJoinPool.commonPool(), sources, targets, distances, numLinks);
+	}
+
+	// Same as above, on the given pool
+	public void solveAll(ForkJoinPool pool, int[] sources, int[] targets, double[] distances, int[] numLinks) {
+		if (targets.length != sources.length || distances.length < sources.length
+				|| (numLinks != null && numLinks.length < sources.length))
+			throw new IllegalArgumentException("Query and answer arrays must be the same length");
+		for (int i=0; i<sources.length; i++) {
+			checkNode(sources[i]);
+			checkNode(targets[i]);
+		}
+		pool.invoke(new Batch(sources, targets, distances, numLinks, 0, sources.length));
+	}
+
+	// Part of a batch of queries (from "begin" up to, not including, "end"),
+	// split in half until small enough to answer on one thread.  Idle
+	// threads in the pool steal halves that have not been started yet.
+	private class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] sources;
+		private final int[] targets;
+		private final double[] distances;
+		private final int[] numLinks;
+		private final int begin;
+		private final int end;
+
+		Batch(int[] s, int[] t, double[] d, int[] n, int b, int e) {
+			sources = s;
+			targets = t;
+			distances = d;
+			numLinks = n;
+			begin = b;
+			end = e;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin > BATCH_SPLIT) {
+				int middle = (begin + end) >>> 1;
+				invokeAll(new Batch(sources, targets, distances, numLinks, begin, middle),
+						new Batch(sources, targets, distances, numLinks, middle, end));
+				return;
+			}
+			PathSearch search = searches.get();
+			for (int i=begin; i<end; i++) {
+				SearchStats stats = query(sources[i], targets[i]);
+				distances[i] = stats.getDistance();
+				if (numLinks != null) {
+					ArrayList<Link> path = stats.isConnected() ? search.getPath() : null;
+					numLinks[i] = (path == null) ? 0 : path.size();
+				}
+			}
+		}
+	}
+
+	// Search between two nodes on this thread's search object and measure
+	// it (nodes in different components are turned down without searching)
+	private SearchStats query(int source, int target) {
+		boolean connected = components.connected(source, target);
+		return SearchStats.measure(algorithm, searches.get(), source, target, connected, countingBytes);
+	}
+
+	// Make sure a node number is in the graph
+	private void checkNode(int node) {
+		if (node < 0 || node >= graph.getNumNodes())
+			throw new IllegalArgumentException("No node " + node + " in graph of " + graph.getNumNodes() + " nodes");
+	}
+}
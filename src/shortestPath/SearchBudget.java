@@ -0,0 +1,153 @@
+package shortestPath;
+
+// Limits on how much work one search may do: a number of node expansions,
+// a length of time, or both.  A search given a budget (see
+// PathSearch.setBudget) stops as soon as either runs out, or as soon as
+// another thread calls cancel, and keeps the best path it had found by
+// then.  The clock and the cancel switch are only looked at every
+// CHECK_INTERVAL expansions, so a budget costs next to nothing.  Work
+// done to prepare for a search, such as building landmark tables, can be
+// counted against the same limits (see carryOver).
+//
+// While a search runs, other threads can follow its progress (see
+// getNodesExpanded and getFractionUsed), for example to show it in the
+// window.
+public class SearchBudget {
+
+	// Number of expansions between looks at the clock (a power of two)
+	private static final int CHECK_INTERVAL = 1024;
+
+	// Limits (Long.MAX_VALUE for none)
+	private final long maxNodes;
+	private final long maxNanos;
+
+	// Set from any thread to stop the search
+	private volatile boolean cancelled = false;
+
+	// Progress of the current search, as of the last check
+	private volatile long startTime;
+	private volatile long nodesExpanded;
+
+	// Did the last search run out of budget (or was it cancelled)?
+	private volatile boolean spent = false;
+
+	// Expansions counted before the current search started, while
+	// preparing for it, and should the next start carry on from them?
+	// (Only used by the thread doing the work.)
+	private long nodesBefore = 0;
+	private boolean carrying = false;
+
+	// Budget of at most "maxNodes" expansions and "maxMillis" milliseconds
+	// per search (0 for no limit on either)
+	public SearchBudget(long maxNodes, long maxMillis) {
+		this.maxNodes = (maxNodes > 0) ? maxNodes : Long.MAX_VALUE;
+		this.maxNanos = (maxMillis > 0) ? Math.min(maxMillis, Long.MAX_VALUE / 1000000) * 1000000 : Long.MAX_VALUE;
+		startTime = System.nanoTime();
+	}
+
+	// "GET" METHODS
+
+	// Provide the largest number of expansions allowed (0 if no limit)
+	public long getMaxNodes() {
+		return (maxNodes == Long.MAX_VALUE) ? 0 : maxNodes;
+	}
+
+	// Provide the longest time allowed, in milliseconds (0 if no limit)
+	public long getMaxMillis() {
+		return (maxNanos == Long.MAX_VALUE) ? 0 : maxNanos / 1000000;
+	}
+
+	// Has cancel been called?
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	// Did the last search stop because the budget ran out or it was
+	// cancelled?
+	public boolean isSpent() {
+		return spent;
+	}
+
+	// Provide the number of nodes expanded so far by the current search
+	// (counted every CHECK_INTERVAL expansions)
+	public long getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Provide the time since the current search started, in milliseconds
+	public double getElapsedMillis() {
+		return (System.nanoTime() - startTime) / 1e6;
+	}
+
+	// Provide how much of the budget the current search has used, from 0
+	// to 1 (whichever limit is closer), or -1 if there is no limit
+	public double getFractionUsed() {
+		if (maxNodes == Long.MAX_VALUE && maxNanos == Long.MAX_VALUE)
+			return -1;
+		double nodes = (maxNodes == Long.MAX_VALUE) ? 0 : (double) nodesExpanded / maxNodes;
+		double time = (maxNanos == Long.MAX_VALUE) ? 0 : (double) (System.nanoTime() - startTime) / maxNanos;
+		return Math.min(1, Math.max(nodes, time));
+	}
+
+	// Describe the limits (for the window's drop-down list)
+	@Override
+	public String toString() {
+		if (maxNodes == Long.MAX_VALUE && maxNanos == Long.MAX_VALUE)
+			return "No limit";
+		if (maxNodes == Long.MAX_VALUE)
+			return String.format("Up to %s s", seconds());
+		if (maxNanos == Long.MAX_VALUE)
+			return String.format("Up to %,d nodes", maxNodes);
+		return String.format("Up to %s s or %,d nodes", seconds(), maxNodes);
+	}
+
+	// Time limit in seconds, without decimals when it is a whole number
+	private String seconds() {
+		if (maxNanos % 1000000000 == 0)
+			return Long.toString(maxNanos / 1000000000);
+		return Double.toString(maxNanos / 1e9);
+	}
+
+	// "SET" METHODS
+
+	// Stop the search using this budget, from any thread.  The search
+	// notices within CHECK_INTERVAL expansions.
+	public void cancel() {
+		cancelled = true;
+	}
+
+	// Called by a search as it starts (after carryOver, the clock and
+	// the count go on from where they were)
+	void start() {
+		if (carrying)
+			carrying = false;
+		else {
+			startTime = System.nanoTime();
+			nodesBefore = 0;
+			spent = false;
+		}
+		nodesExpanded = nodesBefore;
+	}
+
+	// Called after some work (since start, or since the last carryOver)
+	// with the number of nodes it expanded, so that the next search goes
+	// on counting from there: for building landmark tables or a
+	// contraction hierarchy on the way to a search (see SearchTask.java)
+	void carryOver(long expanded) {
+		nodesBefore += expanded;
+		nodesExpanded = nodesBefore;
+		carrying = true;
+	}
+
+	// Called by a search after each expansion, with the number of nodes
+	// expanded so far: should it stop?
+	boolean isSpent(long expanded) {
+		long total = nodesBefore + expanded;
+		if (total < maxNodes && (expanded & (CHECK_INTERVAL-1)) != 0)
+			return false;
+		nodesExpanded = total;
+		if (total >= maxNodes || cancelled || System.nanoTime() - startTime >= maxNanos)
+			spent = true;
+		return spent;
+	}
+}
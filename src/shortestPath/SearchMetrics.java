@@ -0,0 +1,172 @@
+package shortestPath;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Running totals of every search of one algorithm (see SearchStats.java):
+// the work done, summed, and the time taken, as a histogram (see
+// LatencyHistogram.java).  There is one per algorithm, made on first use
+// and registered with the platform's MBean server as
+// "shortestPath:type=SearchMetrics,algorithm=<name>", so the totals can
+// be watched from outside the program.  Searches on any number of
+// threads can record at once: the totals are LongAdders, which only add
+// up their per-thread cells when read, so threads don't queue up on them.
+public class SearchMetrics implements SearchMetricsMBean {
+
+	// One set of totals per algorithm (indexed by Algorithm.ordinal)
+	private static final AtomicReferenceArray<SearchMetrics> ALL =
+			new AtomicReferenceArray<SearchMetrics>(Algorithm.values().length);
+
+	private final Algorithm algorithm;
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final LongAdder nodesExpanded = new LongAdder();
+	private final LongAdder edgesRelaxed = new LongAdder();
+	private final LongAdder heapOperations = new LongAdder();
+	private final LongAdder allocatedBytes = new LongAdder();
+	private volatile int peakFrontier;
+
+	private SearchMetrics(Algorithm a) {
+		algorithm = a;
+	}
+
+	// Provide the totals for an algorithm (made and registered on first
+	// use; after that, no lock is taken)
+	public static SearchMetrics of(Algorithm a) {
+		SearchMetrics metrics = ALL.get(a.ordinal());
+		if (metrics == null)
+			metrics = make(a);
+		return metrics;
+	}
+
+	// "GET" METHODS
+
+	@Override
+	public String getAlgorithm() {
+		return algorithm.toString();
+	}
+
+	// Provide the histogram of search times, in nanoseconds
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	@Override
+	public long getSearches() {
+		return latency.getCount();
+	}
+
+	@Override
+	public long getNodesExpanded() {
+		return nodesExpanded.sum();
+	}
+
+	@Override
+	public long getEdgesRelaxed() {
+		return edgesRelaxed.sum();
+	}
+
+	@Override
+	public long getHeapOperations() {
+		return heapOperations.sum();
+	}
+
+	@Override
+	public int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	@Override
+	public long getAllocatedBytes() {
+		return allocatedBytes.sum();
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return latency.getMean() / 1e6;
+	}
+
+	@Override
+	public double getP50Millis() {
+		return latency.getPercentile(50) / 1e6;
+	}
+
+	@Override
+	public double getP90Millis() {
+		return latency.getPercentile(90) / 1e6;
+	}
+
+	@Override
+	public double getP99Millis() {
+		return latency.getPercentile(99) / 1e6;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return latency.getMax() / 1e6;
+	}
+
+	// Short summary for the window's message line
+	@Override
+	public String toString() {
+		return String.format("p50 %.2f ms, p99 %.2f ms over %d searches",
+				getP50Millis(), getP99Millis(), getSearches());
+	}
+
+	// "SET" METHODS
+
+	// Add one search to the totals
+	public void record(SearchStats stats) {
+		latency.record(stats.getWallNanos());
+		nodesExpanded.add(stats.getNodesExpanded());
+		edgesRelaxed.add(stats.getEdgesRelaxed());
+		heapOperations.add(stats.getHeapOperations());
+		if (stats.getAllocatedBytes() > 0)
+			allocatedBytes.add(stats.getAllocatedBytes());
+		if (stats.getPeakFrontier() > peakFrontier) {
+			synchronized (this) {
+				peakFrontier = Math.max(peakFrontier, stats.getPeakFrontier());
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		latency.reset();
+		nodesExpanded.reset();
+		edgesRelaxed.reset();
+		heapOperations.reset();
+		allocatedBytes.reset();
+		synchronized (this) {
+			peakFrontier = 0;
+		}
+	}
+
+	// Make and register the totals for an algorithm, unless another thread
+	// just did
+	private static synchronized SearchMetrics make(Algorithm a) {
+		SearchMetrics metrics = ALL.get(a.ordinal());
+		if (metrics == null) {
+			metrics = new SearchMetrics(a);
+			metrics.register();
+			ALL.set(a.ordinal(), metrics);
+		}
+		return metrics;
+	}
+
+	// Register with the platform's MBean server.  The totals work the same
+	// without it, so a failure (for example, the name already taken by
+	// another copy of the program in the same JVM) is ignored.
+	private void register() {
+		try {
+			ObjectName name = new ObjectName("shortestPath:type=SearchMetrics,algorithm=" + algorithm.name());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		}
+		catch (JMException e) {
+			// Leave the totals unregistered
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package shortestPath;
+
+// What SearchMetrics shows through JMX (for example in JConsole or
+// VisualVM, under "shortestPath"): totals and latency percentiles of the
+// searches of one algorithm since the program started or the last reset.
+// Times are in milliseconds.
+public interface SearchMetricsMBean {
+
+	String getAlgorithm();
+
+	long getSearches();
+
+	long getNodesExpanded();
+
+	long getEdgesRelaxed();
+
+	long getHeapOperations();
+
+	int getPeakFrontier();
+
+	long getAllocatedBytes();
+
+	double getMeanMillis();
+
+	double getP50Millis();
+
+	double getP90Millis();
+
+	double getP99Millis();
+
+	double getMaxMillis();
+
+	// Forget every search recorded so far
+	void reset();
+}
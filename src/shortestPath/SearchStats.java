@@ -0,0 +1,182 @@
+package shortestPath;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// What one shortest path search cost: how many nodes it expanded, links
+// it looked at and heap operations it did, how big its frontier (the
+// nodes waiting to be expanded) got, how long it took and how many bytes
+// it allocated.  Made by "measure", which runs a search and also adds its
+// time to the running totals for its kind of search (see
+// SearchMetrics.java).  A stats object never changes once made.
+//
+// Counting the bytes allocated takes two calls into the thread bean per
+// search, which is noticeable when searches take microseconds, so it can
+// be left out (QueryEngine leaves it out unless asked).
+public class SearchStats {
+
+	// Source of the bytes allocated by a thread (null if the Java runtime
+	// can't tell)
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+	private final Algorithm algorithm;
+	private final boolean connected;
+	private final boolean stopped;
+	private final double distance;
+	private final int nodesExpanded;
+	private final long edgesRelaxed;
+	private final long heapOperations;
+	private final int peakFrontier;
+	private final long wallNanos;
+	private final long allocatedBytes;
+
+	SearchStats(Algorithm algorithm, boolean connected, boolean stopped, double distance, int nodesExpanded,
+			long edgesRelaxed, long heapOperations, int peakFrontier, long wallNanos, long allocatedBytes) {
+		this.algorithm = algorithm;
+		this.connected = connected;
+		this.stopped = stopped;
+		this.distance = distance;
+		this.nodesExpanded = nodesExpanded;
+		this.edgesRelaxed = edgesRelaxed;
+		this.heapOperations = heapOperations;
+		this.peakFrontier = peakFrontier;
+		this.wallNanos = wallNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	// Run a search from node "source" to node "target" of its graph and
+	// measure it.  Nodes known to be in different components (connected
+	// false) are not searched at all.  The result is added to the totals
+	// for the algorithm.
+	public static SearchStats measure(Algorithm algorithm, PathSearch search, int source, int target,
+			boolean connected) {
+		return measure(algorithm, search, source, target, connected, true);
+	}
+
+	// Same, counting the bytes allocated only if "countBytes" is true (if
+	// not, getAllocatedBytes gives -1)
+	public static SearchStats measure(Algorithm algorithm, PathSearch search, int source, int target,
+			boolean connected, boolean countBytes) {
+		long bytesBefore = countBytes ? allocatedBytes() : -1;
+		long start = System.nanoTime();
+		SearchStats stats;
+		if (connected) {
+			double distance = search.search(source, target);
+			long wallNanos = System.nanoTime() - start;
+			long allocated = allocatedSince(bytesBefore);
+			stats = new SearchStats(algorithm, true, search.isStopped(), distance, search.getNodesExpanded(),
+					search.getEdgesRelaxed(), search.getHeapOperations(), search.getPeakFrontier(),
+					wallNanos, allocated);
+		}
+		else {
+			long wallNanos = System.nanoTime() - start;
+			long allocated = allocatedSince(bytesBefore);
+			stats = new SearchStats(algorithm, false, false, Double.POSITIVE_INFINITY, 0, 0, 0, 0,
+					wallNanos, allocated);
+		}
+		SearchMetrics.of(algorithm).record(stats);
+		return stats;
+	}
+
+	// "GET" METHODS
+
+	// Provide the kind of search measured
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	// Were the two nodes in the same component?  (If not, nothing was
+	// searched and every count is zero.)
+	public boolean isConnected() {
+		return connected;
+	}
+
+	// Did the search stop early, because its budget ran out or it was
+	// cancelled?  (If so, the distance is that of the best path found by
+	// then, see PathSearch.isStopped.)
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	// Was a path found?
+	public boolean isFound() {
+		return distance != Double.POSITIVE_INFINITY;
+	}
+
+	// Provide the length of the path found (infinity if none)
+	public double getDistance() {
+		return distance;
+	}
+
+	// Provide the number of nodes expanded
+	public int getNodesExpanded() {
+		return nodesExpanded;
+	}
+
+	// Provide the number of links looked at from the nodes expanded
+	public long getEdgesRelaxed() {
+		return edgesRelaxed;
+	}
+
+	// Provide the number of heap pushes, key decreases and polls
+	public long getHeapOperations() {
+		return heapOperations;
+	}
+
+	// Provide the largest number of nodes waiting to be expanded at once
+	public int getPeakFrontier() {
+		return peakFrontier;
+	}
+
+	// Provide the time the search took, in nanoseconds
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	// Provide the time the search took, in milliseconds
+	public double getWallMillis() {
+		return wallNanos / 1e6;
+	}
+
+	// Provide the number of bytes the search allocated (-1 if the Java
+	// runtime can't tell)
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	// Short summary for the window's message line
+	@Override
+	public String toString() {
+		String bytes = (allocatedBytes < 0) ? "?" : Long.toString(allocatedBytes);
+		return String.format("%d nodes expanded, %d links, %d heap ops, frontier %d, %.2f ms, %s bytes%s",
+				nodesExpanded, edgesRelaxed, heapOperations, peakFrontier, getWallMillis(), bytes,
+				stopped ? ", stopped early" : "");
+	}
+
+	// Bytes allocated so far by the current thread (-1 if unknown)
+	@SuppressWarnings("deprecation")
+	private static long allocatedBytes() {
+		if (ALLOCATIONS == null)
+			return -1;
+		return ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	// Bytes allocated by the current thread since an earlier reading
+	private static long allocatedSince(long before) {
+		if (before < 0)
+			return -1;
+		long after = allocatedBytes();
+		return (after < 0) ? -1 : after - before;
+	}
+
+	// The platform's thread bean, if it counts allocated bytes
+	private static com.sun.management.ThreadMXBean allocationCounter() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean))
+			return null;
+		com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+		if (!counter.isThreadAllocatedMemorySupported() || !counter.isThreadAllocatedMemoryEnabled())
+			return null;
+		return counter;
+	}
+}
@@ -0,0 +1,244 @@
+package shortestPath;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// One shortest path search run in the background, so that a long search
+// (the exhaustive one above all) doesn't freeze the window.  The task is
+// made on the AWT event dispatch thread, which takes a snapshot of what
+// the search needs (the network's Graph and search object, see
+// Network.getSearch); the search then runs on a worker thread with a
+// budget (see SearchBudget.java), which can also cancel it.  When it is
+// done, "whenDone" is run back on the event dispatch thread (through
+// EventQueue.invokeLater) to show the result.
+//
+// The network may be edited while the search runs.  The search only
+// reads its Graph, which never changes, but its result is then out of
+// date; isStale tells whether that happened.  Landmark tables or a
+// contraction hierarchy that are not built yet are built on the worker
+// too, within the same budget as the search (if it runs out first, there
+// is no search), and handed back to the network if it was not edited
+// meanwhile.
+// Once a shortest path is found, the worker also finds every node's
+// distance from the start (see ShortestPathTree.java) and sets up a
+// tracker to keep the path up to date (see DynamicShortestPath.java), so
+// the event dispatch thread only has to show them.  That search counts
+// against the same budget too; if the budget runs out or the task is
+// cancelled during it, the path is still shown, without either.
+public class SearchTask implements Runnable {
+
+	// One worker thread for every task, so tasks run one at a time in
+	// the order started
+	private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "Shortest path search");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	// Snapshot taken when the task is made
+	private final Network network;
+	private final int version;
+	private final Graph graph;
+	private final Algorithm algorithm;
+	private final SearchBudget budget;
+	private final int source;
+	private final int target;
+	private final boolean connected;
+	private final Runnable whenDone;
+	private PathSearch search;	// null until built on the worker
+
+	// Built on the worker (null if not needed)
+	private Landmarks landmarks;
+	private ContractionHierarchy hierarchy;
+
+	// Result, set on the worker before whenDone is queued
+	private volatile boolean done = false;
+	private SearchStats stats;
+	private ArrayList<Link> path;
+	private ShortestPathTree distances;
+	private DynamicShortestPath tracker;
+	private Throwable failure;
+
+	// Task for a search between two nodes of a network (call on the event
+	// dispatch thread, then call start)
+	public SearchTask(Network n, Node start, Node finish, Algorithm a, SearchBudget b, Runnable done) {
+		network = n;
+		version = n.getVersion();
+		graph = n.getGraph();
+		algorithm = a;
+		budget = b;
+		source = graph.indexOf(start);
+		target = graph.indexOf(finish);
+		if (source < 0 || target < 0)
+			throw new IllegalArgumentException("Start or finish node is not in the network");
+		connected = n.isConnected(start, finish);
+		whenDone = done;
+		if (n.isPrepared(a))
+			search = n.getSearch(a);
+	}
+
+	// "GET" METHODS
+
+	// Provide the network searched
+	public Network getNetwork() {
+		return network;
+	}
+
+	// Provide the kind of search
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	// Provide the budget (for following the search's progress)
+	public SearchBudget getBudget() {
+		return budget;
+	}
+
+	// Has the search finished (or failed)?
+	public boolean isDone() {
+		return done;
+	}
+
+	// Has the network been edited since the task was made?  Call on the
+	// event dispatch thread.
+	public boolean isStale() {
+		return network.getVersion() != version;
+	}
+
+	// Provide what the search cost and found (null until done, or if it
+	// failed)
+	public SearchStats getStats() {
+		return stats;
+	}
+
+	// Provide the path found: the shortest one, or the best found before
+	// the budget ran out (see SearchStats.isStopped).  Null until done, or
+	// if no path was found.
+	public ArrayList<Link> getPath() {
+		return path;
+	}
+
+	// Provide every node's distance from the start node (null unless the
+	// search finished and found a path, and the budget lasted)
+	public ShortestPathTree getDistances() {
+		return distances;
+	}
+
+	// Provide a tracker for the path found, which already knows every
+	// distance but doesn't hear about edits until its listen method is
+	// called (null unless the search finished and found a path, and the
+	// budget lasted)
+	public DynamicShortestPath getTracker() {
+		return tracker;
+	}
+
+	// Provide the error the search failed with, such as running out of
+	// memory (null if it didn't)
+	public Throwable getFailure() {
+		return failure;
+	}
+
+	// "SET" METHODS
+
+	// Queue the search on the worker thread
+	public void start() {
+		WORKER.execute(this);
+	}
+
+	// Stop the search as soon as possible; it keeps the best path found
+	// so far, and whenDone is still run
+	public void cancel() {
+		budget.cancel();
+	}
+
+	// The search itself (on the worker thread)
+	@Override
+	public void run() {
+		long startTime = System.nanoTime();
+		try {
+			if (search == null)
+				prepare();
+			search.setBudget(budget);
+			try {
+				stats = SearchStats.measure(algorithm, search, source, target, connected);
+				if (connected)
+					path = search.getPath();
+			}
+			finally {
+				search.setBudget(null);
+			}
+			if (path != null && !stats.isStopped())
+				searchAll();
+		}
+		catch (CancellationException e) {
+			// The budget ran out (or the task was cancelled) while the
+			// tables were being built
+			stats = new SearchStats(algorithm, connected, true, Double.POSITIVE_INFINITY, 0, 0, 0, 0,
+					System.nanoTime() - startTime, -1);
+		}
+		catch (RuntimeException | Error e) {
+			failure = e;
+		}
+		done = true;
+		EventQueue.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				handBack();
+				whenDone.run();
+			}
+		});
+	}
+
+	// Build landmark tables or a contraction hierarchy for the search
+	// (on the worker thread), counting the work against the budget
+	private void prepare() {
+		if (algorithm == Algorithm.LANDMARKS) {
+			landmarks = new Landmarks(graph, Landmarks.DEFAULT_COUNT, budget);
+			search = new AStar(graph, landmarks);
+		}
+		else if (algorithm == Algorithm.CONTRACTION) {
+			hierarchy = new ContractionHierarchy(graph, budget);
+			search = hierarchy.newSearch();
+		}
+		else
+			search = algorithm.newSearch(graph);
+	}
+
+	// Find every node's distance from the start and set up the tracker
+	// (on the worker thread), going on counting from where the search
+	// left off; if the budget runs out first, there are neither
+	private void searchAll() {
+		Dijkstra dijkstra = new Dijkstra(graph);
+		budget.carryOver(stats.getNodesExpanded());
+		dijkstra.setBudget(budget);
+		ShortestPathTree tree;
+		try {
+			tree = dijkstra.searchAll(source);
+		}
+		finally {
+			dijkstra.setBudget(null);
+		}
+		if (dijkstra.isStopped() || budget.isCancelled())
+			return;
+		tracker = new DynamicShortestPath(network, tree, graph.getNode(target));
+		distances = tree;
+	}
+
+	// Give tables built on the worker to the network, so that later
+	// searches don't build them again (on the event dispatch thread)
+	private void handBack() {
+		if (isStale())
+			return;
+		if (landmarks != null && !network.isPrepared(Algorithm.LANDMARKS))
+			network.setLandmarks(landmarks);
+		if (hierarchy != null && !network.isPrepared(Algorithm.CONTRACTION))
+			network.setHierarchy(hierarchy);
+	}
+}
@@ -0,0 +1,81 @@
+package shortestPath;
+
+import java.util.ArrayList;
+
+// Result of searching from one node to every other node of a Graph (see
+// Dijkstra.searchAll): the shortest distance to each node, and the node
+// before it on its shortest path.  Following those "parents" back from
+// any node leads to the source, so together they form a tree holding the
+// shortest path to every node at once.  All arrays are indexed by node
+// number in the graph.
+public class ShortestPathTree {
+
+	private final Graph graph;
+	private final int source;
+	private final double[] distances;	// infinity for nodes not reached
+	private final int[] parents;		// -1 for the source and nodes not reached
+	private final int[] parentSlots;	// graph slot of the link from the parent
+
+	// Tree is made by the search
+	ShortestPathTree(Graph g, int sourceNode, double[] d, int[] p, int[] slots) {
+		graph = g;
+		source = sourceNode;
+		distances = d;
+		parents = p;
+		parentSlots = slots;
+	}
+
+	// "GET" METHODS
+
+	// Provide the graph searched
+	public Graph getGraph() {
+		return graph;
+	}
+
+	// Provide the node searched from
+	public int getSource() {
+		return source;
+	}
+
+	// Shortest distance from the source to a node (infinity if not connected)
+	public double getDistance(int node) {
+		return distances[node];
+	}
+
+	// Node before a node on its shortest path (-1 for the source, and for
+	// nodes not connected to the source)
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	// Link from a node's parent to the node (null for the source, and for
+	// nodes not connected to the source)
+	Link getParentLink(int node) {
+		if (parents[node] < 0)
+			return null;
+		return graph.getLink(parentSlots[node]);
+	}
+
+	// Is a node connected to the source?
+	public boolean isReached(int node) {
+		return distances[node] != Double.POSITIVE_INFINITY;
+	}
+
+	// Provide every distance (the array belongs to the tree; do not change it)
+	public double[] getDistances() {
+		return distances;
+	}
+
+	// Provide every parent (the array belongs to the tree; do not change it)
+	public int[] getParents() {
+		return parents;
+	}
+
+	// Links of the shortest path from the source to a node, or null if the
+	// node is not connected to the source
+	public ArrayList<Link> getPathTo(int node) {
+		if (!isReached(node))
+			return null;
+		return graph.toLinks(parentSlots, source, node);
+	}
+}
@@ -0,0 +1,209 @@
+package shortestPath;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+// A "bucket grid" for finding things on the canvas by position.  The plane is
+// cut into square cells and every item is filed under each cell it touches,
+// so looking up a point only has to check the few items filed under that
+// point's cell instead of every item in the network.  Cells are kept in a
+// hash map, so empty areas (and coordinates outside the canvas) cost nothing.
+// The grid remembers which cells each item was filed under, so items can be
+// removed (or moved) without being told where they used to be.
+public class SpatialGrid<T> {
+
+	// Width and height of a cell, in pixels
+	private final int cellSize;
+
+	// Items filed under each cell (key packs the cell column and row)
+	private final HashMap<Long, ArrayList<T>> cells = new HashMap<Long, ArrayList<T>>();
+
+	// Cells each item is filed under
+	private final HashMap<T, long[]> filed = new HashMap<T, long[]>();
+
+	// Range of cells that have ever held an item (bounds the nearby search)
+	private int minColumn = Integer.MAX_VALUE;
+	private int maxColumn = Integer.MIN_VALUE;
+	private int minRow = Integer.MAX_VALUE;
+	private int maxRow = Integer.MIN_VALUE;
+
+	// Grid must have a cell size
+	public SpatialGrid(int size) {
+		cellSize = size;
+	}
+
+	// "GET" METHODS
+
+	// Provide the items filed under the cell that holds a point (may include
+	// items that touch the cell but not the point itself).  The list
+	// belongs to the grid and must not be changed.
+	public ArrayList<T> get(Point point) {
+		ArrayList<T> bucket = cells.get(key(column(point.x), row(point.y)));
+		if (bucket == null)
+			return new ArrayList<T>();
+		return bucket;
+	}
+
+	// Provide the items filed under every cell a rectangle touches
+	// (an item touching several cells is only listed once)
+	public ArrayList<T> get(Rectangle area) {
+		ArrayList<T> output = new ArrayList<T>();
+		HashSet<T> seen = new HashSet<T>();
+		int firstColumn = column(area.x);
+		int lastColumn = column(area.x + area.width);
+		int firstRow = row(area.y);
+		int lastRow = row(area.y + area.height);
+		for (int c = firstColumn; c <= lastColumn; c++) {
+			for (int r = firstRow; r <= lastRow; r++) {
+				ArrayList<T> bucket = cells.get(key(c, r));
+				if (bucket == null)
+					continue;
+				for (T item : bucket)
+					if (seen.add(item)) output.add(item);
+			}
+		}
+		return output;
+	}
+
+	// Provide at least "count" items (if there are that many) from the
+	// cells closest to a point, searching outward one ring of cells at a time
+	public ArrayList<T> getNearby(Point point, int count) {
+		ArrayList<T> output = new ArrayList<T>();
+		HashSet<T> seen = new HashSet<T>();
+		if (cells.isEmpty())
+			return output;
+		int c0 = column(point.x);
+		int r0 = row(point.y);
+		int maxRing = Math.max(Math.max(c0 - minColumn, maxColumn - c0), Math.max(r0 - minRow, maxRow - r0));
+		for (int ring = 0; ring <= maxRing && output.size() < count; ring++) {
+			for (int c = c0 - ring; c <= c0 + ring; c++) {
+				for (int r = r0 - ring; r <= r0 + ring; r++) {
+					// Only the outline of the ring is new
+					if ((c != c0 - ring) && (c != c0 + ring) && (r != r0 - ring) && (r != r0 + ring))
+						continue;
+					ArrayList<T> bucket = cells.get(key(c, r));
+					if (bucket == null)
+						continue;
+					for (T item : bucket)
+						if (seen.add(item)) output.add(item);
+				}
+			}
+		}
+		return output;
+	}
+
+	// Is an item filed in the grid?
+	public boolean contains(T item) {
+		return filed.containsKey(item);
+	}
+
+	// Provide number of items in the grid
+	public int size() {
+		return filed.size();
+	}
+
+	// "SET" METHODS
+
+	// File an item under every cell a rectangle touches (an item that is
+	// already in the grid is moved)
+	public void add(T item, Rectangle bounds) {
+		int firstColumn = column(bounds.x);
+		int lastColumn = column(bounds.x + bounds.width);
+		int firstRow = row(bounds.y);
+		int lastRow = row(bounds.y + bounds.height);
+		long[] keys = new long[(lastColumn - firstColumn + 1)*(lastRow - firstRow + 1)];
+		int k = 0;
+		for (int c = firstColumn; c <= lastColumn; c++)
+			for (int r = firstRow; r <= lastRow; r++)
+				keys[k++] = key(c, r);
+		file(item, keys);
+	}
+
+	// File an item under every cell within "margin" pixels of the line
+	// segment from (x1, y1) to (x2, y2).  For long, slanted items (links)
+	// this touches far fewer cells than the item's bounding box would.
+	public void addAlong(T item, int x1, int y1, int x2, int y2, int margin) {
+		// Sample the segment every "margin" pixels; every point within
+		// "margin" of the segment is then within 2*margin of a sample
+		HashSet<Long> keys = new HashSet<Long>();
+		int spacing = Math.max(1, margin);
+		int reach = margin + spacing;
+		double length = Math.sqrt(((double) x2 - x1)*(x2 - x1) + ((double) y2 - y1)*(y2 - y1));
+		int steps = (int) Math.ceil(length/spacing) + 1;
+		for (int i=0; i<=steps; i++) {
+			int x = (int) Math.round(x1 + ((double) (x2 - x1))*i/steps);
+			int y = (int) Math.round(y1 + ((double) (y2 - y1))*i/steps);
+			for (int c = column(x - reach); c <= column(x + reach); c++)
+				for (int r = row(y - reach); r <= row(y + reach); r++)
+					keys.add(key(c, r));
+		}
+		long[] keyArray = new long[keys.size()];
+		int k = 0;
+		for (Long key : keys)
+			keyArray[k++] = key;
+		file(item, keyArray);
+	}
+
+	// Remove an item.  Returns false if the item was not in the grid.
+	public boolean remove(T item) {
+		long[] keys = filed.remove(item);
+		if (keys == null)
+			return false;
+		for (long k : keys) {
+			ArrayList<T> bucket = cells.get(k);
+			if (bucket == null)
+				continue;
+			bucket.remove(item);
+			if (bucket.isEmpty())
+				cells.remove(k);
+		}
+		return true;
+	}
+
+	// Remove every item
+	public void clear() {
+		cells.clear();
+		filed.clear();
+		minColumn = Integer.MAX_VALUE;
+		maxColumn = Integer.MIN_VALUE;
+		minRow = Integer.MAX_VALUE;
+		maxRow = Integer.MIN_VALUE;
+	}
+
+	// File an item under the given cells (replacing any earlier filing)
+	private void file(T item, long[] keys) {
+		remove(item);
+		for (long k : keys) {
+			ArrayList<T> bucket = cells.get(k);
+			if (bucket == null) {
+				bucket = new ArrayList<T>(4);
+				cells.put(k, bucket);
+			}
+			bucket.add(item);
+			int c = (int) (k >> 32);
+			int r = (int) k;
+			minColumn = Math.min(minColumn, c);
+			maxColumn = Math.max(maxColumn, c);
+			minRow = Math.min(minRow, r);
+			maxRow = Math.max(maxRow, r);
+		}
+		filed.put(item, keys);
+	}
+
+	// Cell column/row holding a coordinate (floorDiv so negatives work)
+	private int column(int x) {
+		return Math.floorDiv(x, cellSize);
+	}
+
+	private int row(int y) {
+		return Math.floorDiv(y, cellSize);
+	}
+
+	// Pack a cell column and row into one map key
+	private static long key(int column, int row) {
+		return (((long) column) << 32) | (row & 0xffffffffL);
+	}
+}
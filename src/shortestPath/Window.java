@@ -3,7 +3,10 @@ package shortestPath;
 import java.awt.Button;
 import java.awt.Checkbox;
 import java.awt.CheckboxGroup;
+import java.awt.Choice;
 import java.awt.Color;
+import java.awt.EventQueue;
+import java.awt.FileDialog;
 import java.awt.Frame;
 import java.awt.Label;
 import java.awt.Panel;
@@ -13,16 +16,17 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Timer;
+import java.util.TimerTask;
 
 // Main program start point.  Main method sets up the window and the window constructor does the rest.
 public class Window extends Frame implements WindowListener {
 
 	private static final long serialVersionUID = -72036050766721762L;
 
-	// Restricts recursion used to find shortest distance path to prevent stack overflow
-	private static int maxDepth = 10;
-	
 	// Criteria for a random network:
 	private static boolean randomNetwork = false;
 	private static int minNodes;
@@ -33,28 +37,42 @@ public class Window extends Frame implements WindowListener {
 	// For tracking the shortest path highlighting
 	private ArrayList<Link> shortestPath = new ArrayList<>();
 	
-	// Entry point for program.  Arguments can be optionally provided to set maxDepth and random network.
+	// Network being shown (replaced when a network file is loaded)
+	private Network network;
+	
+	// Keeps the highlighted path up to date while the network is edited
+	// (null when no path is being shown)
+	private DynamicShortestPath tracker;
+	
+	// Has a refresh of the tracked path already been queued?
+	private boolean refreshQueued = false;
+	
+	// Limits offered for each search, as {expansions, milliseconds} (0 for
+	// no limit; see SearchBudget.java), and the one picked at first
+	private static final long[][] BUDGETS = {
+			{0, 1000}, {0, 10000}, {0, 60000}, {1000000, 0}, {100000000, 0}, {0, 0}};
+	private static final int DEFAULT_BUDGET = 1;
+	
+	// Search running in the background (null if none, see SearchTask.java)
+	private SearchTask searchTask;
+	
+	// Shows the running search's progress every PROGRESS_MILLIS
+	private static final int PROGRESS_MILLIS = 200;
+	private final Timer progressTimer = new Timer("Search progress", true);
+	private TimerTask progressUpdate;
+	
+	// Entry point for program.  Arguments can be optionally provided to make a random network.
 	public static void main(String args[]) throws Exception {
 		
 		// Parse argument strings, if they exist
 		int numArgs = args.length;
 		
 		if (numArgs == 0) {}
-		else if (numArgs == 1) {
-			maxDepth = Integer.parseInt(args[0]);
-		}
 		else if (numArgs == 3) {
 			randomNetwork = true;
-			minNodes = Integer.parseInt(args[1]);
-			maxNodes = Integer.parseInt(args[2]);
-			linksPerNode = Integer.parseInt(args[3]);
-		}
-		else if (numArgs == 4) {
-			maxDepth = Integer.parseInt(args[0]);
-			randomNetwork = true;
-			minNodes = Integer.parseInt(args[1]);
-			maxNodes = Integer.parseInt(args[2]);
-			linksPerNode = Integer.parseInt(args[3]);
+			minNodes = Integer.parseInt(args[0]);
+			maxNodes = Integer.parseInt(args[1]);
+			linksPerNode = Integer.parseInt(args[2]);
 		}
 		else {
 			throw new Exception("Invalid number of arguments");
@@ -70,7 +88,7 @@ public class Window extends Frame implements WindowListener {
 		// Set up window
 		addWindowListener(this);
 	    this.setLayout(null); 
-	    this.setSize(500, 600);
+	    this.setSize(500, 660);
 	    this.setTitle("Shortest Path finder");
 	    
 	    // Create checkboxes as radio buttons to change user mode
@@ -83,21 +101,41 @@ public class Window extends Frame implements WindowListener {
 	    Button submit = new Button("Submit");
 	    submit.setEnabled(true);
 	    
+	    // Buttons to save the network to a file and load one back
+	    Button save = new Button("Save...");
+	    Button load = new Button("Load...");
+	    
+	    // Drop-down list to pick the search used by the "Submit" button
+	    Choice algorithmChoice = new Choice();
+	    for (Algorithm algorithm : Algorithm.values())
+	    	algorithmChoice.add(algorithm.toString());
+	    
+	    // Drop-down list to pick how long a search may run before it gives
+	    // up and shows the best path found so far
+	    Choice budgetChoice = new Choice();
+	    for (long[] budget : BUDGETS)
+	    	budgetChoice.add(new SearchBudget(budget[0], budget[1]).toString());
+	    budgetChoice.select(DEFAULT_BUDGET);
+	    
 	    // Set up control panel (radio buttons and submit button)
 	    Panel controlPanel = new Panel();
 	    controlPanel.add(cbEdit);
 	    controlPanel.add(cbStart);
 	    controlPanel.add(cbFinish);
+	    controlPanel.add(algorithmChoice);
+	    controlPanel.add(budgetChoice);
 	    controlPanel.add(submit);
-	    controlPanel.setBounds(0, 500, 500, 50);
+	    controlPanel.add(save);
+	    controlPanel.add(load);
+	    controlPanel.setBounds(0, 500, 500, 110);
 	    controlPanel.setBackground(Color.LIGHT_GRAY);
 	    
 	    // Set up feedback to user
 	    Label messageText = new Label("Left-click to add nodes/links, right-click to remove them.  Click and drag nodes to move.", Label.LEFT);
-	    messageText.setBounds(50, 550, 400, 50);
+	    messageText.setBounds(50, 610, 400, 50);
 	    Panel messagePanel = new Panel();
 	    messagePanel.add(messageText);
-	    messagePanel.setBounds(0, 550, 500, 50);
+	    messagePanel.setBounds(0, 610, 500, 50);
 	    messagePanel.setBackground(Color.LIGHT_GRAY);
 	    
 	    // Create display (Display class is the canvas 
@@ -114,15 +152,53 @@ public class Window extends Frame implements WindowListener {
 	    add(messagePanel);
 	    
 	    // Create a random network of nodes and links, or a blank canvas
-	    Network network;
 		if (randomNetwork)
 	    	network = new Network(minNodes, maxNodes, linksPerNode);
 	    else
-	    	network = new Network();
+	    	network = new Network(true);
 		
 		// Add this network to the window's display component
 		display.update(network);
 		
+		// After every edit, bring the highlighted path up to date.  The
+		// refresh is queued to run after the current mouse click is done,
+		// so that the tracker has heard about every edit the click made.
+		NetworkListener editListener = new NetworkListener() {
+			@Override
+			public void nodeAdded(Node node) {
+				queueRefresh();
+			}
+			
+			@Override
+			public void nodeRemoved(Node node) {
+				queueRefresh();
+			}
+			
+			@Override
+			public void nodeMoved(Node node) {
+				queueRefresh();
+			}
+			
+			@Override
+			public void linkChanged(Link link) {
+				queueRefresh();
+			}
+			
+			private void queueRefresh() {
+				if (tracker == null || refreshQueued)
+					return;
+				refreshQueued = true;
+				EventQueue.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						refreshQueued = false;
+						refreshPath(display, messageText);
+					}
+				});
+			}
+		};
+		network.addListener(editListener);
+		
 		// Show window, in all it's glory
 		this.setVisible(true);
 		
@@ -134,7 +210,10 @@ public class Window extends Frame implements WindowListener {
 			public void itemStateChanged(ItemEvent e) {
 				display.setMode(InputState.EDIT_NETWORK);
 				messageText.setText("Left-click to add nodes and links, right-click to remove them");
-				Network.dehighlight(shortestPath);
+				// A path being tracked stays highlighted while editing
+				if (tracker == null)
+					Network.dehighlight(shortestPath);
+				display.setDistances(null);
 				display.repaint();
 			}
 		};
@@ -145,8 +224,10 @@ public class Window extends Frame implements WindowListener {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
 				display.setMode(InputState.PICK_START);
+				stopTracking();
 				messageText.setText("Please select a beginning node");
 				Network.dehighlight(shortestPath);
+				display.setDistances(null);
 				display.repaint();
 			}
 		};
@@ -157,38 +238,74 @@ public class Window extends Frame implements WindowListener {
 			@Override
 			public void itemStateChanged(ItemEvent e) {
 				display.setMode(InputState.PICK_FINISH);
+				stopTracking();
 				messageText.setText("Please select an ending node");
 				Network.dehighlight(shortestPath);
+				display.setDistances(null);
 				display.repaint();
 			}
 		};
 		
-		// When user clicks "Submit" button...
+		// When user clicks "Submit" button, start a search in the background
+		// (or, while one is running, when they click "Cancel", stop it)
 		ActionListener submitButtonClickListener = new ActionListener() {
 
 			@Override
 			public void actionPerformed(ActionEvent e) {
+				if (searchTask != null) {
+					searchTask.cancel();
+					submit.setEnabled(false);
+					messageText.setText("Cancelling the search...");
+					return;
+				}
 				
 				// Check that "start" and "finish" nodes are set...
 				boolean startExists = false;
 				boolean finishExists = false;
 				Node startNode = null;
+				Node finishNode = null;
 				for (Node node : network.getNodes()) {
 					if (node.getState() == NodeState.START) {
 						startExists = true;
 						startNode = node;
 					}
-					else if (node.getState() == NodeState.FINISH)
+					else if (node.getState() == NodeState.FINISH) {
 						finishExists = true;
+						finishNode = node;
+					}
 				}
 				if (startExists && finishExists) {
 					
-					// Find and display shortest distance through network between "start" and "finish" nodes!
-					shortestPath = network.shortestPath(startNode, maxDepth);
-					for (Link link : shortestPath) {
-						link.highlightPath();
-						display.repaint();
-					}
+					// Clear any path left over from the last search
+					stopTracking();
+					Network.dehighlight(shortestPath);
+					
+					shortestPath = new ArrayList<>();
+					display.repaint();
+					
+					// Find the shortest distance through the network between
+					// "start" and "finish" nodes on a worker thread; the
+					// result is shown when it comes back (see showResult)
+					Algorithm algorithm = Algorithm.values()[algorithmChoice.getSelectedIndex()];
+					long[] limits = BUDGETS[budgetChoice.getSelectedIndex()];
+					SearchBudget budget = new SearchBudget(limits[0], limits[1]);
+					Node start = startNode;
+					Node finish = finishNode;
+					searchTask = new SearchTask(network, start, finish, algorithm, budget, new Runnable() {
+						@Override
+						public void run() {
+							SearchTask task = searchTask;
+							searchTask = null;
+							progressUpdate.cancel();
+							submit.setLabel("Submit");
+							submit.setEnabled(true);
+							showResult(task, start, finish, display, messageText);
+						}
+					});
+					submit.setLabel("Cancel");
+					messageText.setText("Searching...");
+					showProgress(searchTask, messageText);
+					searchTask.start();
 				}
 				else {
 					messageText.setText("Please select a beginning node and an ending node");
@@ -197,11 +314,206 @@ public class Window extends Frame implements WindowListener {
 			
 		};
 		
+		// When user clicks "Save..." button, write the network to a file
+		// (see NetworkFile.java)
+		ActionListener saveButtonClickListener = new ActionListener() {
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				File file = chooseFile("Save network", FileDialog.SAVE);
+				if (file == null)
+					return;
+				try {
+					NetworkFile.save(network, file.toPath());
+					String tables = network.isPrepared(Algorithm.LANDMARKS) ? " and landmark tables" : "";
+					messageText.setText("Saved " + network.getNumNodes() + " nodes" + tables + " to " + file.getName());
+				}
+				catch (IOException ex) {
+					messageText.setText("Could not save: " + ex.getMessage());
+				}
+			}
+		};
+		
+		// When user clicks "Load..." button, replace the network with one
+		// read from a network file, or imported from an edge list or
+		// GeoJSON file (see NetworkImporter.java)
+		ActionListener loadButtonClickListener = new ActionListener() {
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				File file = chooseFile("Load network", FileDialog.LOAD);
+				if (file == null)
+					return;
+				Network loaded;
+				try {
+					if (NetworkImporter.canImport(file.getName()))
+						loaded = new Network(NetworkImporter.importFile(file.toPath()));
+					else
+						loaded = NetworkFile.load(file.toPath());
+				}
+				catch (IOException ex) {
+					messageText.setText("Could not load: " + ex.getMessage());
+					return;
+				}
+				if (searchTask != null)
+					searchTask.cancel();
+				stopTracking();
+				shortestPath = new ArrayList<>();
+				network.removeListener(editListener);
+				network = loaded;
+				network.addListener(editListener);
+				display.setDistances(null);
+				display.update(network);
+				display.repaint();
+				messageText.setText("Loaded " + network.getNumNodes() + " nodes from " + file.getName());
+			}
+		};
+		
 		// Add methods to user input buttons
 		cbEdit.addItemListener(checkBoxEditListener);
 		cbStart.addItemListener(checkBoxStartListener);
 		cbFinish.addItemListener(checkBoxFinishListener);
 		submit.addActionListener(submitButtonClickListener);
+		save.addActionListener(saveButtonClickListener);
+		load.addActionListener(loadButtonClickListener);
+	}
+	
+	// Ask the user for a file (null if they cancel)
+	private File chooseFile(String title, int mode) {
+		FileDialog dialog = new FileDialog(this, title, mode);
+		dialog.setVisible(true);
+		if (dialog.getFile() == null)
+			return null;
+		return new File(dialog.getDirectory(), dialog.getFile());
+	}
+	
+	// Show the result of a background search (on the event dispatch
+	// thread, once the search is done)
+	private void showResult(SearchTask task, Node startNode, Node finishNode, Display display, Label messageText) {
+		if (task.getNetwork() != network)
+			return;	// another network was loaded meanwhile
+		if (task.getFailure() != null) {
+			messageText.setText("The search failed: " + task.getFailure());
+			return;
+		}
+		if (task.isStale()) {
+			messageText.setText("The network was edited during the search; press Submit to search again");
+			return;
+		}
+		
+		// Show what the search cost, and how its times stand against every
+		// search of the same kind so far
+		Algorithm algorithm = task.getAlgorithm();
+		SearchStats stats = task.getStats();
+		String cost = String.format("%s; %s", stats, SearchMetrics.of(algorithm));
+		if (algorithm == Algorithm.CONTRACTION && network.getHierarchy() != null)
+			cost += String.format("; hierarchy built in %.0f ms", network.getHierarchy().getPreprocessingMillis());
+		String cutOff = task.getBudget().isCancelled() ? "the search was cancelled" : "the search used up its budget";
+		
+		ArrayList<Link> path = task.getPath();
+		if (path == null) {
+			ComponentIndex components = network.getComponents();
+			if (!stats.isConnected())
+				messageText.setText(String.format("No path: the beginning and ending nodes are in separate parts of the network (%d and %d nodes)",
+						components.getComponentSize(startNode.getIndex()), components.getComponentSize(finishNode.getIndex())));
+			else if (stats.isStopped())
+				messageText.setText("No path was found before " + cutOff + " (" + cost + ")");
+			else
+				messageText.setText("No path connects the beginning and ending nodes");
+		}
+		else if (stats.isStopped()) {
+			
+			// Best path so far: shown, but not kept up to date, since it
+			// may not be the shortest
+			shortestPath = path;
+			Network.highlight(shortestPath);
+			messageText.setText(String.format("Best path found before %s: length %.1f, maybe not the shortest (%s)",
+					cutOff, Network.getPathLength(shortestPath), cost));
+		}
+		else if (task.getTracker() == null) {
+			
+			// Shortest path, but the budget ran out (or the search was
+			// cancelled) before every node's distance was found: shown,
+			// but not kept up to date
+			shortestPath = path;
+			Network.highlight(shortestPath);
+			messageText.setText(String.format("Path length: %.1f (%s); not kept up to date, since %s before every distance was found",
+					Network.getPathLength(shortestPath), cost, cutOff));
+		}
+		else {
+			shortestPath = path;
+			Network.highlight(shortestPath);
+			
+			// Keep the path up to date if the network is edited (the first
+			// search was done by the task, so later edits only cost an update)
+			tracker = task.getTracker();
+			tracker.listen();
+			
+			// Show how far every other node is from "start" too
+			display.setDistances(task.getDistances());
+			messageText.setText(String.format("Path length: %.1f (%s)", Network.getPathLength(shortestPath), cost));
+		}
+		display.repaint();
+	}
+	
+	// Show a running search's progress in the message line until it is
+	// done: nodes expanded, time taken and, if the search has a budget, a
+	// bar showing how much of it is used up
+	private void showProgress(SearchTask task, Label messageText) {
+		progressUpdate = new TimerTask() {
+			@Override
+			public void run() {
+				EventQueue.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						if (task != searchTask || task.isDone() || task.getBudget().isCancelled())
+							return;
+						SearchBudget budget = task.getBudget();
+						String bar = "";
+						double used = budget.getFractionUsed();
+						if (used >= 0) {
+							int filled = (int) Math.round(used * 20);
+							bar = "  [" + "#".repeat(filled) + "-".repeat(20 - filled) + "]";
+						}
+						messageText.setText(String.format("Searching (%s): %,d nodes expanded, %.1f s%s",
+								task.getAlgorithm(), budget.getNodesExpanded(), budget.getElapsedMillis()/1000, bar));
+					}
+				});
+			}
+		};
+		progressTimer.schedule(progressUpdate, PROGRESS_MILLIS, PROGRESS_MILLIS);
+	}
+	
+	// Bring the highlighted path up to date after the network was edited
+	private void refreshPath(Display display, Label messageText) {
+		if (tracker == null)
+			return;
+		Network.dehighlight(shortestPath);
+		shortestPath = new ArrayList<>();
+		if (!tracker.isValid()) {
+			stopTracking();
+			messageText.setText("The beginning or ending node was removed");
+		}
+		else {
+			ArrayList<Link> path = tracker.getPath();
+			if (path == null)
+				messageText.setText("No path connects the beginning and ending nodes anymore");
+			else {
+				shortestPath = path;
+				Network.highlight(shortestPath);
+				messageText.setText(String.format("Path length: %.1f (updated, %d nodes expanded)",
+						Network.getPathLength(shortestPath), tracker.getNodesExpanded()));
+			}
+		}
+		display.repaint();
+	}
+	
+	// Stop keeping the highlighted path up to date
+	private void stopTracking() {
+		if (tracker != null) {
+			tracker.dispose();
+			tracker = null;
+		}
 	}
 	
 	/*
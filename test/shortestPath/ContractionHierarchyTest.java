@@ -0,0 +1,71 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Contraction hierarchy searches against plain Dijkstra, on networks where
+// some links weigh nothing (allowed, see Link.setWeight): contracting a
+// node between two weightless links still needs a shortcut.
+class ContractionHierarchyTest {
+
+	// The chain u - x - w - y, with u-x and x-w weighing 0
+	@Test
+	void weightlessChain() {
+		int[] xs = {0, 10, 20, 30};
+		int[] ys = {0, 0, 0, 0};
+		int[] from = {0, 1, 2};
+		int[] to = {1, 2, 3};
+		double[] weights = {0, 0, 5};
+		Graph graph = Graph.fromLinks(xs, ys, from, to, weights, 3);
+		PathSearch search = new ContractionHierarchy(graph).newSearch();
+		for (int source=0; source<4; source++) {
+			for (int target=0; target<4; target++) {
+				double expected = (Math.max(source, target) == 3 && Math.min(source, target) < 3) ? 5 : 0;
+				assertEquals(expected, search.search(source, target), source + " to " + target);
+				assertNotNull(search.getPath());
+			}
+		}
+	}
+
+	// Random networks with about a third of their links weighing 0
+	@Test
+	void weightlessLinksMatchDijkstra() {
+		for (int seed=0; seed<100; seed++) {
+			Random rand = new Random(seed);
+			int n = 30 + rand.nextInt(50);
+			int m = 2*n;
+			int[] xs = new int[n];
+			int[] ys = new int[n];
+			for (int v=0; v<n; v++) {
+				xs[v] = 25 + rand.nextInt(450);
+				ys[v] = 25 + rand.nextInt(450);
+			}
+			int[] from = new int[m];
+			int[] to = new int[m];
+			double[] weights = new double[m];
+			for (int i=0; i<m; i++) {
+				from[i] = rand.nextInt(n);
+				to[i] = rand.nextInt(n);
+				weights[i] = (rand.nextInt(3) == 0) ? 0 : rand.nextInt(10);
+			}
+			Graph graph = Graph.fromLinks(xs, ys, from, to, weights, m);
+			Dijkstra dijkstra = new Dijkstra(graph);
+			PathSearch search = new ContractionHierarchy(graph).newSearch();
+			for (int q=0; q<50; q++) {
+				int source = rand.nextInt(n);
+				int target = rand.nextInt(n);
+				double expected = dijkstra.search(source, target);
+				String query = "seed " + seed + ", " + source + " to " + target;
+				assertEquals(expected, search.search(source, target), query);
+				ArrayList<Link> path = search.getPath();
+				if (expected != Double.POSITIVE_INFINITY)
+					assertEquals(expected, Network.getPathLength(path), 1e-9, query);
+			}
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// The path tracker against plain Dijkstra on the network as it stands,
+// after every one of a long run of random edits: nodes added (some on top
+// of others), removed and moved (some onto others), links made, switched
+// on and off and given new weights (some 0).
+class DynamicShortestPathTest {
+
+	// Number of random edits per run
+	private static final int EDITS = 400;
+
+	// Distances may differ in the last bits, depending on the order in
+	// which the links were added up
+	private static final double TOLERANCE = 1e-9;
+
+	// Two nodes joined by a weightless link must not keep each other's
+	// distance once the rest of their path is gone
+	@Test
+	void weightlessLinkCutOff() {
+		Network network = new Network(true);
+		Node start = network.addNode(0, 0);
+		Node a = network.addNode(100, 0);
+		Node b = network.addNode(100, 50);
+		Node finish = network.addNode(200, 0);
+		Link cut = network.connect(start, a);
+		network.connect(a, b).setWeight(0);
+		network.connect(b, finish);
+		DynamicShortestPath tracker = new DynamicShortestPath(network, start, finish);
+		check(network, tracker, "before");
+		network.deactivateLink(cut);
+		assertEquals(Double.POSITIVE_INFINITY, tracker.getDistance());
+		assertNull(tracker.getPath());
+		tracker.dispose();
+	}
+
+	// Tracker that does its own first search
+	@Test
+	void trackerMatchesDijkstra() {
+		for (int seed=0; seed<10; seed++) {
+			Random rand = new Random(seed);
+			Network network = new Network(NetworkGenerator.randomGraph(40, 2, rand));
+			Node start = network.getNodes().get(0);
+			Node finish = network.getNodes().get(1);
+			DynamicShortestPath tracker = new DynamicShortestPath(network, start, finish);
+			edit(network, tracker, rand, "seed " + seed);
+			tracker.dispose();
+		}
+	}
+
+	// Tracker started from a tree of shortest paths, including weightless
+	// links from the start
+	@Test
+	void trackerFromTreeMatchesDijkstra() {
+		for (int seed=0; seed<10; seed++) {
+			Random rand = new Random(seed);
+			Network network = new Network(NetworkGenerator.randomGraph(40, 2, rand));
+			for (Link link : network.getLinks()) {
+				if (rand.nextInt(4) == 0)
+					link.setWeight(0);
+			}
+			Node start = network.getNodes().get(0);
+			Node finish = network.getNodes().get(1);
+			ShortestPathTree tree = new Dijkstra(network.getGraph()).searchAll(start.getIndex());
+			DynamicShortestPath tracker = new DynamicShortestPath(network, tree, finish);
+			tracker.listen();
+			check(network, tracker, "seed " + seed + " from tree");
+			edit(network, tracker, rand, "seed " + seed + " from tree");
+			tracker.dispose();
+		}
+	}
+
+	// Make random edits, checking the tracker after each one (the start
+	// and finish nodes are never removed)
+	private static void edit(Network network, DynamicShortestPath tracker, Random rand, String what) {
+		Node start = tracker.getStart();
+		Node finish = tracker.getFinish();
+		for (int e=0; e<EDITS; e++) {
+			ArrayList<Node> nodes = network.getNodes();
+			Node node = nodes.get(rand.nextInt(nodes.size()));
+			Node other = nodes.get(rand.nextInt(nodes.size()));
+			ArrayList<Link> links = network.getLinks();
+			Link link = links.isEmpty() ? null : links.get(rand.nextInt(links.size()));
+			int kind = rand.nextInt(6);
+			if (kind == 0) {
+				if (rand.nextBoolean())
+					network.addNode(other.getX(), other.getY());
+				else
+					network.addNode(25 + rand.nextInt(450), 25 + rand.nextInt(450));
+			}
+			else if (kind == 1) {
+				if (node != other)
+					network.connect(node, other);
+			}
+			else if (kind == 2) {
+				if (link == null)
+					continue;
+				if (link.isActive())
+					network.deactivateLink(link);
+				else
+					link.activate();
+			}
+			else if (kind == 3) {
+				if (rand.nextBoolean())
+					network.moveNode(node, new Point(other.getX(), other.getY()));
+				else
+					network.moveNode(node, new Point(25 + rand.nextInt(450), 25 + rand.nextInt(450)));
+			}
+			else if (kind == 4) {
+				if (node != start && node != finish)
+					network.removeNode(node);
+			}
+			else {
+				if (link == null)
+					continue;
+				int choice = rand.nextInt(3);
+				if (choice == 0)
+					link.setWeight(0);
+				else if (choice == 1)
+					link.setWeight(rand.nextInt(300));
+				else
+					link.clearWeight();
+			}
+			check(network, tracker, what + ", edit " + e + " (kind " + kind + ")");
+		}
+	}
+
+	// Check the tracker's distance and path against Dijkstra
+	private static void check(Network network, DynamicShortestPath tracker, String what) {
+		assertTrue(tracker.isValid(), what);
+		Node start = tracker.getStart();
+		Node finish = tracker.getFinish();
+		double expected = new Dijkstra(network.getGraph()).search(start.getIndex(), finish.getIndex());
+		assertEquals(expected, tracker.getDistance(), TOLERANCE, what);
+		ArrayList<Link> path = tracker.getPath();
+		if (expected == Double.POSITIVE_INFINITY) {
+			assertNull(path, what);
+			return;
+		}
+		assertNotNull(path, what);
+		Node node = start;
+		for (Link link : path) {
+			assertTrue(link.isActive(), what + ": path uses a link that is switched off");
+			node = link.getOther(node);
+			assertNotNull(node, what + ": links don't join up");
+			assertTrue(node.getIndex() >= 0, what + ": path goes through a removed node");
+		}
+		assertSame(finish, node, what + ": path ends at the wrong node");
+		assertEquals(expected, Network.getPathLength(path), TOLERANCE, what);
+	}
+}
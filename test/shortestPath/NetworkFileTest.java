@@ -0,0 +1,121 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Networks saved and loaded again, with and without landmark tables, and
+// files whose links don't make a proper graph.
+class NetworkFileTest {
+
+	@TempDir
+	Path folder;
+
+	// A graph comes back the same, and so do its landmark tables
+	@Test
+	void graphRoundTrip() throws IOException {
+		Graph graph = NetworkGenerator.randomGraph(200, 3, new Random(1));
+		Landmarks landmarks = new Landmarks(graph, Landmarks.DEFAULT_COUNT);
+		Path path = folder.resolve("graph.spn");
+		NetworkFile.save(graph, landmarks, path);
+
+		Graph loaded = NetworkFile.loadGraph(path);
+		assertArrayEquals(graph.xs, loaded.xs);
+		assertArrayEquals(graph.ys, loaded.ys);
+		assertArrayEquals(graph.offsets, loaded.offsets);
+		assertArrayEquals(graph.targets, loaded.targets);
+		assertArrayEquals(graph.weights, loaded.weights);
+		assertEquals(graph.isGeometric(), loaded.isGeometric());
+
+		Landmarks loadedLandmarks = NetworkFile.loadLandmarks(path, loaded);
+		assertNotNull(loadedLandmarks);
+		assertEquals(landmarks.getCount(), loadedLandmarks.getCount());
+		for (int i=0; i<landmarks.getCount(); i++) {
+			assertEquals(landmarks.getLandmark(i), loadedLandmarks.getLandmark(i));
+			for (int node=0; node<graph.getNumNodes(); node++)
+				assertEquals(landmarks.getDistance(i, node), loadedLandmarks.getDistance(i, node));
+		}
+
+		// Searches on the loaded graph find what they found before
+		Dijkstra dijkstra = new Dijkstra(graph);
+		AStar search = new AStar(loaded, loadedLandmarks);
+		Random rand = new Random(2);
+		for (int q=0; q<50; q++) {
+			int source = rand.nextInt(graph.getNumNodes());
+			int target = rand.nextInt(graph.getNumNodes());
+			assertEquals(dijkstra.search(source, target), search.search(source, target), 1e-9);
+		}
+	}
+
+	// A network saved from the window, with and without landmark tables
+	@Test
+	void networkRoundTrip() throws IOException {
+		Network network = new Network(40, 41, 3, 5);
+		network.getLinks().get(0).setWeight(0);
+		Path path = folder.resolve("network.spn");
+		NetworkFile.save(network, path);
+		Network loaded = NetworkFile.load(path);
+		assertEquals(network.getNumNodes(), loaded.getNumNodes());
+		assertEquals(network.getGraph().getNumLinks(), loaded.getGraph().getNumLinks());
+		assertArrayEquals(network.getGraph().weights, loaded.getGraph().weights);
+		assertFalse(loaded.isPrepared(Algorithm.LANDMARKS));
+		assertNull(NetworkFile.loadLandmarks(path, loaded.getGraph()));
+
+		network.setLandmarks(new Landmarks(network.getGraph(), Landmarks.DEFAULT_COUNT));
+		NetworkFile.save(network, path);
+		loaded = NetworkFile.load(path);
+		assertTrue(loaded.isPrepared(Algorithm.LANDMARKS));
+		assertEquals(network.getLandmarks().getCount(), loaded.getLandmarks().getCount());
+	}
+
+	// Files whose slots don't pair up into links are refused
+	@Test
+	void badLinksRefused() throws IOException {
+		int[] xs = {0, 10, 20};
+		int[] ys = {0, 0, 0};
+
+		// The proper graph: 0 - 1 - 2
+		assertLoads(new Graph(xs, ys, new int[] {0, 1, 3, 4}, new int[] {1, 0, 2, 1}, new double[] {10, 10, 10, 10}));
+
+		// Node 1 linked to itself
+		assertRefused(new Graph(xs, ys, new int[] {0, 1, 3, 4}, new int[] {1, 0, 1, 1}, new double[] {10, 10, 0, 0}));
+
+		// Slots 0 -> 1 and 1 -> 2 with no slots back (and 2 -> 0, 2 -> 1)
+		assertRefused(new Graph(xs, ys, new int[] {0, 1, 2, 4}, new int[] {1, 2, 0, 1}, new double[] {10, 10, 20, 10}));
+
+		// The two ends of link 1 - 2 disagree about its weight
+		assertRefused(new Graph(xs, ys, new int[] {0, 1, 3, 4}, new int[] {1, 0, 2, 1}, new double[] {10, 10, 10, 3}));
+
+		// Link 0 - 1 twice
+		assertRefused(new Graph(xs, ys, new int[] {0, 2, 4, 4}, new int[] {1, 1, 0, 0}, new double[] {10, 10, 10, 10}));
+	}
+
+	private void assertLoads(Graph graph) throws IOException {
+		Path path = folder.resolve("good.spn");
+		NetworkFile.save(graph, null, path);
+		assertEquals(graph.getNumLinks(), NetworkFile.loadGraph(path).getNumLinks());
+	}
+
+	private void assertRefused(Graph graph) throws IOException {
+		Path path = folder.resolve("bad.spn");
+		NetworkFile.save(graph, null, path);
+		try {
+			NetworkFile.loadGraph(path);
+			fail("bad network file was loaded");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+}
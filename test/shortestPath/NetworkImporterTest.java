@@ -0,0 +1,129 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+// Edge lists with and without headers, comments and weights, node files
+// and GeoJSON.  Nodes are numbered in the order first seen, so the tests
+// can tell which is which.
+class NetworkImporterTest {
+
+	// Every kind of header is skipped, whatever its number of columns
+	@Test
+	void headersSkipped() throws IOException {
+		String[] headers = {"source,target", "from to", "Source;Target;Weight", "from\tto\tcost",
+				"node1 node2 length", "a b"};
+		for (String header : headers) {
+			Graph graph = edgeList(header + "\n1 2\n2 3\n");
+			assertEquals(3, graph.getNumNodes(), header);
+			assertEquals(2, graph.getNumLinks(), header);
+		}
+	}
+
+	// A first line naming nodes is a link when the other lines name
+	// nodes too
+	@Test
+	void namedNodesKept() throws IOException {
+		Graph graph = edgeList("a b\nb c\n");
+		assertEquals(3, graph.getNumNodes());
+		assertEquals(2, graph.getNumLinks());
+		graph = edgeList("london paris 3\n");
+		assertEquals(2, graph.getNumNodes());
+		assertEquals(3, weight(graph, 0, 1));
+	}
+
+	// Comment and blank lines are skipped, before the header too
+	@Test
+	void commentsSkipped() throws IOException {
+		Graph graph = edgeList("# made by hand\n% another comment\n\nsource,target\n1,2\n# between\n2,3\n");
+		assertEquals(3, graph.getNumNodes());
+		assertEquals(2, graph.getNumLinks());
+	}
+
+	// Weights as given, or 1 where there are no coordinates
+	@Test
+	void weights() throws IOException {
+		Graph graph = edgeList("from to weight\n1 2 2.5\n2 3 0\n3 1\n");
+		assertEquals(2.5, weight(graph, 0, 1));
+		assertEquals(0, weight(graph, 1, 2));
+		assertEquals(1, weight(graph, 2, 0));
+		assertRejected("1 2 3\n2 3 far\n");
+		assertRejected("1 2 -3\n");
+		assertRejected("1 2\n3\n");
+	}
+
+	// Node file first: weights not given are distances between the nodes
+	@Test
+	void nodeFile() throws IOException {
+		NetworkImporter importer = new NetworkImporter();
+		importer.readNodes(new StringReader("id,x,y\n1,0,0\n2,3,4\n3,3,0\n"));
+		importer.readEdgeList(new StringReader("source,target\n1,2\n2,3\n"));
+		Graph graph = importer.toGraph();
+		assertEquals(5, weight(graph, 0, 1));
+		assertEquals(4, weight(graph, 1, 2));
+	}
+
+	// Points named by "id" joined by lines naming them, and lines joined
+	// at their end points; weights given, or the length along the line
+	@Test
+	void geoJson() throws IOException {
+		String text = "{\"type\": \"FeatureCollection\", \"features\": [\n"
+				+ "{\"type\": \"Feature\", \"properties\": {\"id\": \"a\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [0, 0]}},\n"
+				+ "{\"type\": \"Feature\", \"properties\": {\"id\": \"b\"}, \"geometry\": {\"type\": \"Point\", \"coordinates\": [3, 4]}},\n"
+				+ "{\"type\": \"Feature\", \"properties\": {\"from\": \"a\", \"to\": \"b\", \"weight\": 7},"
+				+ " \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[0, 0], [3, 4]]}},\n"
+				+ "{\"type\": \"Feature\", \"properties\": {},"
+				+ " \"geometry\": {\"type\": \"LineString\", \"coordinates\": [[3, 4], [3, 0], [6, 0]]}},\n"
+				+ "{\"type\": \"Feature\", \"properties\": null, \"geometry\": {\"type\": \"Polygon\", \"coordinates\": []}}\n"
+				+ "]}";
+		NetworkImporter importer = new NetworkImporter();
+		importer.readGeoJson(new StringReader(text));
+		Graph graph = importer.toGraph();
+		assertEquals(3, graph.getNumNodes());
+		assertEquals(2, graph.getNumLinks());
+		assertEquals(7, weight(graph, 0, 1));
+		assertEquals(7, weight(graph, 1, 2));
+
+		// North is up: "b" is above "a" on the canvas
+		assertTrue(graph.ys[1] < graph.ys[0]);
+		try {
+			new NetworkImporter().readGeoJson(new StringReader("{\"features\": [1]}"));
+			fail("a feature that is not an object was read");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	private static Graph edgeList(String text) throws IOException {
+		NetworkImporter importer = new NetworkImporter();
+		importer.readEdgeList(new StringReader(text));
+		return importer.toGraph();
+	}
+
+	// Is an edge list turned down?
+	private static void assertRejected(String text) {
+		try {
+			edgeList(text);
+			fail("bad edge list was read: " + text);
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	// Weight of the link between two nodes (NaN if there is none)
+	private static double weight(Graph graph, int a, int b) {
+		for (int slot = graph.offsets[a]; slot < graph.offsets[a+1]; slot++) {
+			if (graph.targets[slot] == b)
+				return graph.weights[slot];
+		}
+		return Double.NaN;
+	}
+}
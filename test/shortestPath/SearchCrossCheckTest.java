@@ -0,0 +1,217 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Every kind of search, the distance matrix and the tree of shortest paths
+// against plain Dijkstra, on seeded networks from NetworkGenerator: evenly
+// random, nearest neighbour and grid networks, each also with about a
+// third of its links made weightless.  Sparse random networks and grids
+// with blocks missing fall apart into several pieces, so some pairs of
+// nodes have no path at all.
+class SearchCrossCheckTest {
+
+	// Number of random queries per network
+	private static final int QUERIES = 100;
+
+	// Distances may differ in the last bits, depending on the order in
+	// which the links were added up
+	private static final double TOLERANCE = 1e-9;
+
+	// Plain Dijkstra itself against the simplest possible version
+	@Test
+	void dijkstraMatchesReference() {
+		for (Graph graph : graphs(1)) {
+			Dijkstra dijkstra = new Dijkstra(graph);
+			for (int source=0; source<graph.getNumNodes(); source += 7) {
+				double[] expected = reference(graph, source);
+				for (int target=0; target<graph.getNumNodes(); target++)
+					assertEquals(expected[target], dijkstra.search(source, target), TOLERANCE);
+			}
+		}
+	}
+
+	// Every algorithm but the exhaustive one (far too slow for these)
+	@Test
+	void algorithmsMatchDijkstra() {
+		int unconnected = 0;
+		for (Graph graph : graphs(2)) {
+			Dijkstra dijkstra = new Dijkstra(graph);
+			Random rand = new Random(graph.getNumNodes());
+			for (Algorithm algorithm : Algorithm.values()) {
+				if (algorithm == Algorithm.EXHAUSTIVE)
+					continue;
+				PathSearch search = algorithm.newSearch(graph);
+				for (int q=0; q<QUERIES; q++) {
+					int source = rand.nextInt(graph.getNumNodes());
+					int target = rand.nextInt(graph.getNumNodes());
+					double expected = dijkstra.search(source, target);
+					if (expected == Double.POSITIVE_INFINITY)
+						unconnected++;
+					check(graph, search, source, target, expected, algorithm.name());
+				}
+			}
+		}
+		assertTrue(unconnected > 0, "no query was between separate pieces of a network");
+	}
+
+	// The exhaustive search, on networks small enough for it
+	@Test
+	void exhaustiveMatchesDijkstra() {
+		for (int seed=0; seed<20; seed++) {
+			Random rand = new Random(seed);
+			Graph graph = NetworkGenerator.randomGraph(6 + rand.nextInt(5), 2.5, rand);
+			if (seed % 2 == 1)
+				graph = withWeightlessLinks(graph, rand);
+			Dijkstra dijkstra = new Dijkstra(graph);
+			PathSearch search = Algorithm.EXHAUSTIVE.newSearch(graph);
+			for (int source=0; source<graph.getNumNodes(); source++) {
+				for (int target=0; target<graph.getNumNodes(); target++)
+					check(graph, search, source, target, dijkstra.search(source, target), "seed " + seed);
+			}
+		}
+	}
+
+	// Both ways of filling in the distance matrix
+	@Test
+	void distanceMatrixMatchesDijkstra() {
+		for (Graph graph : graphs(3)) {
+			Dijkstra dijkstra = new Dijkstra(graph);
+			DistanceMatrix floydWarshall = new DistanceMatrix(graph, true);
+			DistanceMatrix repeated = new DistanceMatrix(graph, false);
+			for (int source=0; source<graph.getNumNodes(); source++) {
+				for (int target=0; target<graph.getNumNodes(); target++) {
+					double expected = dijkstra.search(source, target);
+					assertEquals(expected, floydWarshall.get(source, target), TOLERANCE);
+					assertEquals(expected, repeated.get(source, target), TOLERANCE);
+				}
+			}
+		}
+	}
+
+	// The tree of shortest paths from a node: distances, parents and paths
+	@Test
+	void shortestPathTreeMatchesDijkstra() {
+		for (Graph graph : graphs(4)) {
+			for (int source=0; source<graph.getNumNodes(); source += 5) {
+				ShortestPathTree tree = new Dijkstra(graph).searchAll(source);
+				assertEquals(source, tree.getSource());
+				assertEquals(-1, tree.getParent(source));
+				double[] expected = reference(graph, source);
+				for (int node=0; node<graph.getNumNodes(); node++) {
+					assertEquals(expected[node], tree.getDistance(node), TOLERANCE);
+					assertEquals(expected[node] != Double.POSITIVE_INFINITY, tree.isReached(node));
+					ArrayList<Link> path = tree.getPathTo(node);
+					if (!tree.isReached(node)) {
+						assertNull(path);
+						continue;
+					}
+					assertNotNull(path);
+					checkPath(graph, path, source, node, expected[node], "tree from " + source);
+					if (node != source) {
+						int parent = tree.getParent(node);
+						Link last = path.get(path.size() - 1);
+						assertSame(graph.getNode(parent), last.getOther(graph.getNode(node)));
+					}
+				}
+			}
+		}
+	}
+
+	// Networks to check (the same for the same seed): each kind of
+	// generated network, then the same ones with weightless links
+	private static ArrayList<Graph> graphs(long seed) {
+		Random rand = new Random(seed);
+		ArrayList<Graph> output = new ArrayList<Graph>();
+		output.add(NetworkGenerator.randomGraph(150, 1.2, rand));
+		output.add(NetworkGenerator.randomGraph(120, 4, rand));
+		output.add(NetworkGenerator.nearestGraph(150, 3, rand));
+		output.add(NetworkGenerator.gridGraph(10, 12, 0.6, rand));
+		int count = output.size();
+		for (int i=0; i<count; i++)
+			output.add(withWeightlessLinks(output.get(i), rand));
+		return output;
+	}
+
+	// Same graph with about a third of its links weighing 0 (the graph is
+	// then no longer geometric, see Graph.isGeometric)
+	private static Graph withWeightlessLinks(Graph graph, Random rand) {
+		int numLinks = graph.getNumLinks();
+		int[] from = new int[numLinks];
+		int[] to = new int[numLinks];
+		double[] weights = new double[numLinks];
+		int i = 0;
+		for (int node=0; node<graph.getNumNodes(); node++) {
+			for (int slot = graph.offsets[node]; slot < graph.offsets[node+1]; slot++) {
+				// (each link once, from its lower numbered end)
+				if (graph.targets[slot] <= node)
+					continue;
+				from[i] = node;
+				to[i] = graph.targets[slot];
+				weights[i] = (rand.nextInt(3) == 0) ? 0 : graph.weights[slot];
+				i++;
+			}
+		}
+		return Graph.fromLinks(graph.xs, graph.ys, from, to, weights, i);
+	}
+
+	// Check one search's distance and path
+	private static void check(Graph graph, PathSearch search, int source, int target, double expected,
+			String what) {
+		String query = what + ": " + source + " to " + target;
+		assertEquals(expected, search.search(source, target), TOLERANCE, query);
+		ArrayList<Link> path = search.getPath();
+		if (expected == Double.POSITIVE_INFINITY)
+			assertNull(path, query);
+		else
+			checkPath(graph, path, source, target, expected, query);
+	}
+
+	// Is a path a chain of links from "source" to "target" of the expected
+	// length?
+	private static void checkPath(Graph graph, ArrayList<Link> path, int source, int target, double expected,
+			String query) {
+		assertNotNull(path, query);
+		Node node = graph.getNode(source);
+		for (Link link : path) {
+			node = link.getOther(node);
+			assertNotNull(node, query + ": links don't join up");
+		}
+		assertSame(graph.getNode(target), node, query + ": path ends at the wrong node");
+		assertEquals(expected, Network.getPathLength(path), TOLERANCE, query);
+	}
+
+	// Distances from a node the slow, obvious way: settle the nearest
+	// unsettled node, n times over
+	private static double[] reference(Graph graph, int source) {
+		int n = graph.getNumNodes();
+		double[] distances = new double[n];
+		boolean[] settled = new boolean[n];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[source] = 0;
+		for (int round=0; round<n; round++) {
+			int nearest = -1;
+			for (int node=0; node<n; node++) {
+				if (!settled[node] && (nearest < 0 || distances[node] < distances[nearest]))
+					nearest = node;
+			}
+			if (distances[nearest] == Double.POSITIVE_INFINITY)
+				break;
+			settled[nearest] = true;
+			for (int slot = graph.offsets[nearest]; slot < graph.offsets[nearest+1]; slot++) {
+				int other = graph.targets[slot];
+				distances[other] = Math.min(distances[other], distances[nearest] + graph.weights[slot]);
+			}
+		}
+		return distances;
+	}
+}
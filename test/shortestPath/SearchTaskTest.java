@@ -0,0 +1,61 @@
+package shortestPath;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+// Searches run on the worker thread: the distances and tracker found
+// after the path count against the search's budget.
+class SearchTaskTest {
+
+	// A path next door and a budget big enough for every distance
+	@Test
+	void distancesWithinBudget() throws InterruptedException {
+		SearchTask task = run(new SearchBudget(0, 0));
+		assertNull(task.getFailure());
+		assertFalse(task.getStats().isStopped());
+		assertNotNull(task.getPath());
+		assertNotNull(task.getDistances());
+		assertNotNull(task.getTracker());
+		assertEquals(task.getStats().getDistance(), task.getTracker().getDistance(), 1e-9);
+	}
+
+	// The same path, with a budget too small to find every distance: the
+	// path is still found, without distances or a tracker
+	@Test
+	void distancesOverBudget() throws InterruptedException {
+		SearchTask task = run(new SearchBudget(2000, 0));
+		assertNull(task.getFailure());
+		assertFalse(task.getStats().isStopped());
+		assertNotNull(task.getPath());
+		assertNull(task.getDistances());
+		assertNull(task.getTracker());
+		assertTrue(task.getBudget().isSpent());
+	}
+
+	// Search between neighbouring corners of a 100 x 100 grid, waiting
+	// until it is done
+	private static SearchTask run(SearchBudget budget) throws InterruptedException {
+		Network network = new Network(NetworkGenerator.gridGraph(100, 100, 1, new Random(1)));
+		Node start = network.getNodes().get(0);
+		Node finish = network.getNodes().get(1);
+		CountDownLatch done = new CountDownLatch(1);
+		SearchTask task = new SearchTask(network, start, finish, Algorithm.DIJKSTRA, budget, new Runnable() {
+			@Override
+			public void run() {
+				done.countDown();
+			}
+		});
+		task.start();
+		assertTrue(done.await(30, TimeUnit.SECONDS), "search didn't finish");
+		return task;
+	}
+}